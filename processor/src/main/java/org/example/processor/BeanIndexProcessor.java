@@ -0,0 +1,447 @@
+package org.example.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// 컴파일 시점에 @MyTransactional 메서드가 있는 빈의 서브클래스 프록시(Xxx$$Proxy)와 @Inject 빈의 생성 인덱스를 만든다.
+// 프록시는 트랜잭션 속성을 상수로 갖고 TransactionInterceptor를 바로 호출한다. 추가로 등록된 인터셉터가 있을 때만 체인을 거친다.
+// 런타임에는 ContainerService가 인덱스를 ServiceLoader로 읽어 생성자 분석, 애너테이션 탐색, 동적 프록시 없이 빈을 만든다.
+@SupportedAnnotationTypes(BeanIndexProcessor.INJECT)
+public class BeanIndexProcessor extends AbstractProcessor {
+
+  static final String INJECT = "org.example.di.Inject";
+  private static final String MY_TRANSACTIONAL = "org.example.transactional.MyTransactional";
+
+  private static final String BEAN_INDEX = "org.example.di.BeanIndex";
+  private static final String INTERCEPTOR_CHAIN = "org.example.di.InterceptorChain";
+  private static final String TRANSACTION_INTERCEPTOR = "org.example.transactional.TransactionInterceptor";
+  private static final String TARGET_INVOKER = "org.example.transactional.TargetInvoker";
+  private static final String INDEX_PACKAGE = "org.example.di.generated";
+  private static final String INDEX_CLASS = "GeneratedBeanIndex";
+  private static final String PROXY_SUFFIX = "$$Proxy";
+
+  // 빈 클래스 -> @Inject 생성자. 생성되는 프록시에는 @Inject가 없으므로 첫 라운드에 모두 모인다.
+  private final Map<String, ExecutableElement> injectConstructors = new LinkedHashMap<>();
+  private final Map<String, Boolean> proxiedBeans = new LinkedHashMap<>();
+  private boolean indexWritten;
+
+  private Elements elements;
+  private Types types;
+  private Filer filer;
+  private Messager messager;
+
+  @Override
+  public synchronized void init(ProcessingEnvironment processingEnv) {
+    super.init(processingEnv);
+    this.elements = processingEnv.getElementUtils();
+    this.types = processingEnv.getTypeUtils();
+    this.filer = processingEnv.getFiler();
+    this.messager = processingEnv.getMessager();
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    if (roundEnv.processingOver() || indexWritten) {
+      return false;
+    }
+
+    for (TypeElement annotation : annotations) {
+      for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+        TypeElement type = (TypeElement) element.getEnclosingElement();
+        injectConstructors.put(type.getQualifiedName().toString(), (ExecutableElement) element);
+      }
+    }
+
+    for (Map.Entry<String, ExecutableElement> entry : injectConstructors.entrySet()) {
+      TypeElement type = (TypeElement) entry.getValue().getEnclosingElement();
+      List<ExecutableElement> methods = transactionalMethods(type);
+      if (!methods.isEmpty()) {
+        writeProxy(type, entry.getValue(), methods);
+      }
+      proxiedBeans.put(entry.getKey(), !methods.isEmpty());
+    }
+
+    if (!injectConstructors.isEmpty()) {
+      writeIndex();
+      indexWritten = true;
+    }
+    return false;
+  }
+
+  // 런타임 TransactionAttributeSource와 같이 public 메서드를 보고, 구현 메서드에 없으면 인터페이스 선언을 본다.
+  private List<ExecutableElement> transactionalMethods(TypeElement type) {
+    List<ExecutableElement> methods = new ArrayList<>();
+    for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(type))) {
+      TypeElement owner = (TypeElement) method.getEnclosingElement();
+      if (owner.getKind() == ElementKind.INTERFACE || owner.getQualifiedName().contentEquals("java.lang.Object")
+              || !method.getModifiers().contains(Modifier.PUBLIC) || method.getModifiers().contains(Modifier.STATIC)) {
+        continue;
+      }
+      if (findAnnotation(method, type) != null) {
+        methods.add(method);
+      }
+    }
+    return methods;
+  }
+
+  private AnnotationMirror findAnnotation(ExecutableElement method, TypeElement type) {
+    AnnotationMirror annotation = getAnnotation(method);
+    if (annotation != null) {
+      return annotation;
+    }
+
+    for (TypeMirror ifc : allInterfaces(type.asType())) {
+      for (ExecutableElement candidate : ElementFilter.methodsIn(((TypeElement) types.asElement(ifc)).getEnclosedElements())) {
+        if (elements.overrides(method, candidate, type) && getAnnotation(candidate) != null) {
+          return getAnnotation(candidate);
+        }
+      }
+    }
+    return null;
+  }
+
+  private List<TypeMirror> allInterfaces(TypeMirror type) {
+    List<TypeMirror> interfaces = new ArrayList<>();
+    for (TypeMirror superType : types.directSupertypes(type)) {
+      if (types.asElement(superType).getKind() == ElementKind.INTERFACE) {
+        interfaces.add(superType);
+      }
+      interfaces.addAll(allInterfaces(superType));
+    }
+    return interfaces;
+  }
+
+  private AnnotationMirror getAnnotation(Element element) {
+    for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+      if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(MY_TRANSACTIONAL)) {
+        return annotation;
+      }
+    }
+    return null;
+  }
+
+  private void writeProxy(TypeElement type, ExecutableElement constructor, List<ExecutableElement> methods) {
+    if (type.getModifiers().contains(Modifier.FINAL)) {
+      messager.printMessage(Diagnostic.Kind.ERROR, "@MyTransactional bean must not be final", type);
+      return;
+    }
+
+    String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+    String proxyName = type.getSimpleName() + PROXY_SUFFIX;
+    String typeName = type.getQualifiedName().toString();
+    StringBuilder sb = new StringBuilder();
+
+    sb.append("package ").append(packageName).append(";\n\n");
+    sb.append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n");
+    sb.append("@SuppressWarnings(\"unchecked\")\n");
+    sb.append("public class ").append(proxyName).append(" extends ").append(typeName).append(" {\n\n");
+
+    for (int i = 0; i < methods.size(); i++) {
+      ExecutableElement method = methods.get(i);
+      sb.append("  private static final org.example.transactional.TransactionAttribute ATTRIBUTE_").append(i)
+              .append(" = ").append(attributeExpression(method, findAnnotation(method, type))).append(";\n");
+    }
+    // 메서드마다 super를 부르는 invoker와 추가 인터셉터 체인을 거치는 invoker를 상수로 둔다. 호출마다 달라지는 건 프록시와 인자뿐이다.
+    sb.append("  private static final Object[] NO_ARGS = {};\n");
+    for (int i = 0; i < methods.size(); i++) {
+      sb.append("  private static final ").append(TARGET_INVOKER).append(" INVOKER_").append(i)
+              .append(" = (context, proxy, args) -> ((").append(proxyName).append(") proxy).invokeSuper").append(i)
+              .append("(").append(argumentCasts(methods.get(i))).append(");\n");
+      sb.append("  private static final ").append(TARGET_INVOKER).append(" CHAINED_").append(i)
+              .append(" = (context, proxy, args) -> ((").append(INTERCEPTOR_CHAIN).append(") context).invoke(proxy, args, INVOKER_")
+              .append(i).append(", null);\n");
+    }
+    sb.append("\n  private final ").append(TRANSACTION_INTERCEPTOR).append(" transactionInterceptor;\n");
+    for (int i = 0; i < methods.size(); i++) {
+      sb.append("  private final ").append(INTERCEPTOR_CHAIN).append(" chain").append(i).append(";\n");
+    }
+
+    // 생성자: 트랜잭션 인터셉터 + 추가 인터셉터 목록 + 원래 생성자 인자. 추가 인터셉터가 없으면 체인을 만들지 않는다.
+    List<String> parameters = new ArrayList<>();
+    parameters.add(TRANSACTION_INTERCEPTOR + " transactionInterceptor");
+    parameters.add("java.util.List<org.example.di.Advisor> advisors");
+    parameters.addAll(parameterDeclarations(constructor));
+    sb.append("\n  public ").append(proxyName).append("(").append(String.join(", ", parameters)).append(")")
+            .append(throwsClause(constructor)).append(" {\n");
+    sb.append("    super(").append(parameterNames(constructor)).append(");\n");
+    sb.append("    this.transactionInterceptor = transactionInterceptor;\n");
+    for (int i = 0; i < methods.size(); i++) {
+      List<String> parameterTypes = new ArrayList<>();
+      for (VariableElement parameter : methods.get(i).getParameters()) {
+        parameterTypes.add(types.erasure(parameter.asType()) + ".class");
+      }
+      sb.append("    this.chain").append(i).append(" = ").append(INTERCEPTOR_CHAIN).append(".build(").append(typeName)
+              .append(".class, \"").append(methods.get(i).getSimpleName()).append("\", new Class<?>[]{")
+              .append(String.join(", ", parameterTypes)).append("}, advisors);\n");
+    }
+    sb.append("  }\n");
+
+    for (int i = 0; i < methods.size(); i++) {
+      writeMethod(sb, methods.get(i), i);
+    }
+    sb.append("}\n");
+
+    write(packageName + "." + proxyName, sb.toString(), type);
+  }
+
+  private void writeMethod(StringBuilder sb, ExecutableElement method, int index) {
+    if (method.getModifiers().contains(Modifier.FINAL)) {
+      messager.printMessage(Diagnostic.Kind.ERROR, "@MyTransactional method must not be final", method);
+      return;
+    }
+
+    TypeMirror returnType = method.getReturnType();
+    boolean isVoid = returnType.getKind() == TypeKind.VOID;
+    String names = parameterNames(method);
+    String superCall = "super." + method.getSimpleName() + "(" + names + ")";
+    String chain = "chain" + index;
+    String args = method.getParameters().isEmpty() ? "NO_ARGS" : "new Object[]{" + names + "}";
+
+    sb.append("\n  @Override\n  public ").append(typeParameters(method)).append(returnType).append(' ')
+            .append(method.getSimpleName()).append('(').append(String.join(", ", parameterDeclarations(method))).append(')')
+            .append(throwsClause(method)).append(" {\n");
+
+    // 상위 생성자 안에서 호출되면 인터셉터가 아직 없으므로 그대로 호출한다.
+    sb.append("    if (transactionInterceptor == null) {\n");
+    sb.append("      ").append(isVoid ? superCall + ";\n      return;\n" : "return " + superCall + ";\n");
+    sb.append("    }\n\n");
+
+    String cast = "";
+    if (!isVoid) {
+      cast = "(" + (returnType.getKind().isPrimitive()
+              ? types.boxedClass((PrimitiveType) returnType).getQualifiedName().toString()
+              : returnType.toString()) + ") ";
+    }
+
+    sb.append("    try {\n");
+    sb.append("      ").append(isVoid ? "" : "return ").append(cast).append("transactionInterceptor.invoke(ATTRIBUTE_").append(index)
+            .append(", ").append(chain).append(" == null ? INVOKER_").append(index).append(" : CHAINED_").append(index)
+            .append(", ").append(chain).append(", this, ").append(args).append(");\n");
+
+    List<String> rethrown = new ArrayList<>(List.of("java.lang.RuntimeException", "java.lang.Error"));
+    rethrown.addAll(checkedExceptions(method));
+    sb.append("    } catch (").append(String.join(" | ", rethrown)).append(" e) {\n");
+    sb.append("      throw e;\n");
+    sb.append("    } catch (java.lang.Throwable e) {\n");
+    sb.append("      throw new java.lang.reflect.UndeclaredThrowableException(e);\n");
+    sb.append("    }\n");
+    sb.append("  }\n");
+
+    // 정적 invoker는 super를 직접 부를 수 없으므로 인자를 지운 타입으로 받는 private 메서드를 거친다.
+    List<String> erased = new ArrayList<>();
+    for (VariableElement parameter : method.getParameters()) {
+      erased.add(types.erasure(parameter.asType()) + " " + parameter.getSimpleName());
+    }
+    sb.append("\n  private Object invokeSuper").append(index).append("(").append(String.join(", ", erased))
+            .append(") throws java.lang.Throwable {\n");
+    sb.append("    ").append(isVoid ? superCall + ";\n    return null;\n" : "return " + superCall + ";\n");
+    sb.append("  }\n");
+  }
+
+  private String argumentCasts(ExecutableElement method) {
+    List<String> casts = new ArrayList<>();
+    List<? extends VariableElement> parameters = method.getParameters();
+    for (int i = 0; i < parameters.size(); i++) {
+      casts.add("(" + types.erasure(parameters.get(i).asType()) + ") args[" + i + "]");
+    }
+    return String.join(", ", casts);
+  }
+
+  private String attributeExpression(ExecutableElement method, AnnotationMirror annotation) {
+    Map<String, Object> values = new LinkedHashMap<>();
+    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : elements.getElementValuesWithDefaults(annotation).entrySet()) {
+      values.put(entry.getKey().getSimpleName().toString(), entry.getValue().getValue());
+    }
+
+    // 런타임의 TransactionAttribute.name(Method)와 같은 형식: 바이너리 클래스 이름.메서드(파라미터 타입,...)
+    List<String> parameterTypes = new ArrayList<>();
+    for (VariableElement parameter : method.getParameters()) {
+      parameterTypes.add(typeName(types.erasure(parameter.asType())));
+    }
+    String name = elements.getBinaryName((TypeElement) method.getEnclosingElement()) + "." + method.getSimpleName()
+            + "(" + String.join(",", parameterTypes) + ")";
+    return "org.example.transactional.TransactionAttribute.of(\"" + name + "\", "
+            + values.get("readOnly") + ", "
+            + "org.example.transactional.Propagation." + ((VariableElement) values.get("propagation")).getSimpleName() + ", "
+            + values.get("maxRetries") + ", "
+            + values.get("retryBackoffMillis") + "L, "
+            + values.get("timeout") + ")";
+  }
+
+  // Class.getTypeName()과 같이 중첩 클래스는 $로, 배열은 []로 쓴다.
+  private String typeName(TypeMirror type) {
+    if (type.getKind() == TypeKind.ARRAY) {
+      return typeName(((ArrayType) type).getComponentType()) + "[]";
+    }
+    if (type.getKind() == TypeKind.DECLARED) {
+      return elements.getBinaryName((TypeElement) types.asElement(type)).toString();
+    }
+    return type.toString();
+  }
+
+  // 멀티 catch에는 서로 상속 관계인 타입을 함께 쓸 수 없으므로 언체크 예외와 하위 타입은 뺀다.
+  private List<String> checkedExceptions(ExecutableElement method) {
+    TypeMirror runtimeException = elements.getTypeElement("java.lang.RuntimeException").asType();
+    TypeMirror error = elements.getTypeElement("java.lang.Error").asType();
+    List<? extends TypeMirror> thrown = method.getThrownTypes();
+
+    List<String> checked = new ArrayList<>();
+    for (TypeMirror type : thrown) {
+      if (types.isSubtype(type, runtimeException) || types.isSubtype(type, error)) {
+        continue;
+      }
+      boolean covered = thrown.stream().anyMatch(other -> !types.isSameType(other, type) && types.isSubtype(type, other));
+      if (!covered && !checked.contains(type.toString())) {
+        checked.add(type.toString());
+      }
+    }
+    return checked;
+  }
+
+  private String typeParameters(ExecutableElement method) {
+    if (method.getTypeParameters().isEmpty()) {
+      return "";
+    }
+
+    List<String> declarations = new ArrayList<>();
+    for (TypeParameterElement parameter : method.getTypeParameters()) {
+      String bounds = parameter.getBounds().stream()
+              .map(TypeMirror::toString)
+              .filter(bound -> !bound.equals("java.lang.Object"))
+              .collect(Collectors.joining(" & "));
+      declarations.add(parameter.getSimpleName() + (bounds.isEmpty() ? "" : " extends " + bounds));
+    }
+    return "<" + String.join(", ", declarations) + "> ";
+  }
+
+  private List<String> parameterDeclarations(ExecutableElement executable) {
+    List<String> declarations = new ArrayList<>();
+    List<? extends VariableElement> parameters = executable.getParameters();
+    for (int i = 0; i < parameters.size(); i++) {
+      String type = parameters.get(i).asType().toString();
+      if (executable.isVarArgs() && i == parameters.size() - 1) {
+        type = type.substring(0, type.length() - 2) + "...";
+      }
+      declarations.add(type + " " + parameters.get(i).getSimpleName());
+    }
+    return declarations;
+  }
+
+  private String parameterNames(ExecutableElement executable) {
+    return executable.getParameters().stream()
+            .map(parameter -> parameter.getSimpleName().toString())
+            .collect(Collectors.joining(", "));
+  }
+
+  private String throwsClause(ExecutableElement executable) {
+    if (executable.getThrownTypes().isEmpty()) {
+      return "";
+    }
+    return " throws " + executable.getThrownTypes().stream().map(TypeMirror::toString).collect(Collectors.joining(", "));
+  }
+
+  // @Inject 빈마다 의존 타입 목록과 생성 람다를 BeanRegistry에 등록하는 인덱스를 만든다.
+  // 프록시 여부는 컴파일 시점에 정해지므로 런타임에 애너테이션을 다시 찾지 않는다.
+  private void writeIndex() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("package ").append(INDEX_PACKAGE).append(";\n\n");
+    sb.append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n");
+    sb.append("public class ").append(INDEX_CLASS).append(" implements ").append(BEAN_INDEX).append(" {\n\n");
+
+    sb.append("  @Override\n");
+    sb.append("  public java.util.List<Class<?>> getBeanClasses() {\n");
+    sb.append("    return java.util.List.of(\n");
+    sb.append(injectConstructors.keySet().stream().map(name -> "            " + name + ".class").collect(Collectors.joining(",\n")));
+    sb.append("\n    );\n");
+    sb.append("  }\n\n");
+
+    sb.append("  @Override\n");
+    sb.append("  public void registerBeans(org.example.di.BeanRegistry registry) {\n");
+    for (Map.Entry<String, ExecutableElement> entry : injectConstructors.entrySet()) {
+      String beanClass = entry.getKey();
+      List<? extends VariableElement> parameters = entry.getValue().getParameters();
+
+      List<String> dependencyTypes = new ArrayList<>();
+      List<String> arguments = new ArrayList<>();
+      for (int i = 0; i < parameters.size(); i++) {
+        String erasure = types.erasure(parameters.get(i).asType()).toString();
+        dependencyTypes.add(erasure + ".class");
+        arguments.add("(" + erasure + ") args[" + i + "]");
+      }
+
+      String creation;
+      if (proxiedBeans.get(beanClass)) {
+        arguments.add(0, "r.getTransactionInterceptor()");
+        arguments.add(1, "r.getAdditionalAdvisors()");
+        creation = "new " + beanClass + PROXY_SUFFIX + "(" + String.join(", ", arguments) + ")";
+      } else {
+        creation = "new " + beanClass + "(" + String.join(", ", arguments) + ")";
+      }
+
+      sb.append("    registry.registerBean(").append(beanClass).append(".class,\n");
+      sb.append("            java.util.List.of(").append(String.join(", ", dependencyTypes)).append("),\n");
+      sb.append("            (r, args) -> ").append(creation).append(");\n");
+    }
+    sb.append("  }\n");
+    sb.append("}\n");
+
+    write(INDEX_PACKAGE + "." + INDEX_CLASS, sb.toString());
+    try {
+      FileObject services = filer.createResource(StandardLocation.CLASS_OUTPUT, "", "META-INF/services/" + BEAN_INDEX);
+      try (Writer writer = services.openWriter()) {
+        writer.write(INDEX_PACKAGE + "." + INDEX_CLASS + "\n");
+      }
+    } catch (IOException e) {
+      messager.printMessage(Diagnostic.Kind.ERROR, "cannot write bean index service file: " + e.getMessage());
+    }
+  }
+
+  private void write(String className, String source, Element... originatingElements) {
+    try {
+      JavaFileObject file = filer.createSourceFile(className, originatingElements);
+      try (Writer writer = file.openWriter()) {
+        writer.write(source);
+      }
+    } catch (IOException e) {
+      messager.printMessage(Diagnostic.Kind.ERROR, "cannot write " + className + ": " + e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package org.example.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+// 성능 변경 전후로 같은 조건의 기준 값을 남긴다.
+// 프록시 호출 비용(1 스레드)과 이체 처리량(1..N 스레드)을 GC 프로파일러와 함께 측정해 JSON으로 저장한다.
+// ./gradlew jmhBaseline -PmaxThreads=8
+public class BenchmarkRunner {
+
+  public static void main(String[] args) throws RunnerException {
+    int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+    File outputDir = new File(args.length > 1 ? args[1] : "build/jmh");
+    outputDir.mkdirs();
+
+    run(ProxyDispatchBenchmark.class, 1, new File(outputDir, "dispatch.json"));
+    for (int threads = 1; threads <= maxThreads; threads *= 2) {
+      run(TransferBenchmark.class, threads, new File(outputDir, "transfer-t" + threads + ".json"));
+    }
+  }
+
+  private static void run(Class<?> benchmark, int threads, File result) throws RunnerException {
+    Options options = new OptionsBuilder()
+            .include(benchmark.getSimpleName())
+            .threads(threads)
+            .addProfiler(GCProfiler.class) // gc.alloc.rate.norm: 호출 한 번당 할당 바이트
+            .resultFormat(ResultFormatType.JSON)
+            .result(result.getPath())
+            .build();
+    new Runner(options).run();
+  }
+}
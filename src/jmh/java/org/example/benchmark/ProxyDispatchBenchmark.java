@@ -0,0 +1,182 @@
+package org.example.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.di.Advisor;
+import org.example.di.MethodInvocation;
+import org.example.di.MyTransactionalHandler;
+import org.example.di.SubclassProxyFactory;
+import org.example.member.BatchFailurePolicy;
+import org.example.member.Member;
+import org.example.member.MemberServiceV2;
+import org.example.member.Transfer;
+import org.example.transactional.MyTransactionManager;
+import org.example.transactional.MyTransactional;
+import org.example.transactional.ProxyInMemberService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JDK 동적 프록시(MyTransactionalHandler)와 서브클래스 프록시(SubclassProxyFactory)의 호출 비용 비교
+// *Chained는 아무 일도 하지 않는 인터셉터 3개를 쌓았을 때의 체인 호출 비용이다.
+// 컴파일 시점에 생성되는 프록시(X$$Proxy)는 이 소스셋에서 생성되지 않아 따로 재지 않는다. 메서드마다 상수 invoker를 쓰므로
+// 호출마다 남는 할당은 인자 배열(인자가 없으면 없음)과 박싱, 추가 인터셉터가 있을 때의 체인 호출 객체 하나다.
+// *Dispatch 벤치마크는 트랜잭션 없이 직접 만든 프록시(ProxyInMemberService)와 컨테이너 프록시의 전달 비용만 잰다.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProxyDispatchBenchmark {
+
+  private HikariDataSource dataSource;
+  private CounterService target;
+  private CounterService jdkProxy;
+  private CounterService subclassProxy;
+  private CounterService chainedProxy;
+  private CounterService jdkChainedProxy;
+  private MemberServiceV2 memberService;
+  private MemberServiceV2 handwrittenProxy;
+  private MemberServiceV2 containerProxy;
+
+  @Setup
+  public void setUp() {
+    dataSource = new HikariDataSource();
+    dataSource.setJdbcUrl("jdbc:h2:mem:proxy;DB_CLOSE_DELAY=-1");
+    dataSource.setMaximumPoolSize(1);
+    MyTransactionManager transactionManager = new MyTransactionManager(dataSource);
+
+    target = new CounterServiceImpl();
+    jdkProxy = (CounterService) Proxy.newProxyInstance(
+            CounterService.class.getClassLoader(),
+            new Class[]{CounterService.class},
+            new MyTransactionalHandler(new CounterServiceImpl(), new Class[]{CounterService.class}, transactionManager));
+    subclassProxy = SubclassProxyFactory.createProxy(CounterServiceImpl.class, new Class[0], new Object[0], transactionManager);
+    Advisor passThrough = (method, targetClass) -> MethodInvocation::proceed;
+    chainedProxy = SubclassProxyFactory.createProxy(CounterServiceImpl.class, new Class[0], new Object[0],
+            List.of(passThrough, passThrough, passThrough));
+    jdkChainedProxy = (CounterService) Proxy.newProxyInstance(
+            CounterService.class.getClassLoader(),
+            new Class[]{CounterService.class},
+            new MyTransactionalHandler(new CounterServiceImpl(), new Class[]{CounterService.class},
+                    List.of(passThrough, passThrough, passThrough)));
+
+    memberService = new StubMemberService();
+    handwrittenProxy = new ProxyInMemberService(dataSource).getMemberServiceProxy(new StubMemberService());
+    containerProxy = (MemberServiceV2) Proxy.newProxyInstance(
+            MemberServiceV2.class.getClassLoader(),
+            new Class[]{MemberServiceV2.class},
+            new MyTransactionalHandler(new StubMemberService(), new Class[]{MemberServiceV2.class}, transactionManager));
+  }
+
+  @TearDown
+  public void tearDown() {
+    dataSource.close();
+  }
+
+  @Benchmark
+  public int direct() {
+    return target.plain(1);
+  }
+
+  @Benchmark
+  public int jdkProxyPlain() {
+    return jdkProxy.plain(1);
+  }
+
+  @Benchmark
+  public int subclassProxyPlain() {
+    return subclassProxy.plain(1);
+  }
+
+  @Benchmark
+  public int subclassProxyChained() {
+    return chainedProxy.plain(1);
+  }
+
+  @Benchmark
+  public int jdkProxyChained() {
+    return jdkChainedProxy.plain(1);
+  }
+
+  @Benchmark
+  public int jdkProxyTransactional() {
+    return jdkProxy.transactional(1);
+  }
+
+  @Benchmark
+  public int subclassProxyTransactional() {
+    return subclassProxy.transactional(1);
+  }
+
+  @Benchmark
+  public Member directDispatch() throws SQLException {
+    return memberService.findMember("memberA");
+  }
+
+  @Benchmark
+  public Member handwrittenProxyDispatch() throws SQLException {
+    return handwrittenProxy.findMember("memberA");
+  }
+
+  @Benchmark
+  public Member containerProxyDispatch() throws SQLException {
+    return containerProxy.findMember("memberA");
+  }
+
+  public interface CounterService {
+
+    int plain(int value);
+
+    int transactional(int value);
+  }
+
+  public static class CounterServiceImpl implements CounterService {
+
+    private int count;
+
+    @Override
+    public int plain(int value) {
+      return count += value;
+    }
+
+    @MyTransactional
+    @Override
+    public int transactional(int value) {
+      return count += value;
+    }
+  }
+
+  // @MyTransactional이 없으므로 두 프록시 모두 트랜잭션 없이 타겟을 호출한다.
+  public static class StubMemberService implements MemberServiceV2 {
+
+    private final Member member = new Member("memberA", 10000);
+
+    @Override
+    public void accountTransfer(String fromId, String toId, int money) {
+    }
+
+    @Override
+    public Member findMember(String memberId) {
+      return member;
+    }
+
+    @Override
+    public List<Transfer> accountTransferBatch(List<Transfer> transfers, BatchFailurePolicy policy) {
+      return List.of();
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package org.example.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.db.LazyConnectionDataSource;
+import org.example.db.StatementCache;
+import org.example.di.BeanRegistry;
+import org.example.di.TransactionAdvisor;
+import org.example.member.MemberCache;
+import org.example.member.MemberRepositoryV1;
+import org.example.member.MemberServiceV1;
+import org.example.member.MemberServiceV2;
+import org.example.member.MemberServiceV2Impl;
+import org.example.transactional.MyTransactionManager;
+import org.example.transactional.ProxyInMemberService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// 세 가지 트랜잭션 방식으로 계좌 이체 한 건을 끝까지 수행하는 비용 비교 (임베디드 인메모리 H2)
+// 스레드 수는 -t 옵션이나 BenchmarkRunner로 바꿔가며 측정한다.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransferBenchmark {
+
+  private static final int INITIAL_MONEY = 1_000_000_000;
+
+  @Param("1000")
+  private int accounts;
+
+  @Param("16")
+  private int poolSize;
+
+  private HikariDataSource dataSource;
+  private MemberServiceV1 manualService;
+  private MemberServiceV2 handwrittenProxy;
+  private MemberServiceV2 containerProxy;
+
+  @Setup(Level.Trial)
+  public void setUp() throws SQLException {
+    dataSource = new HikariDataSource();
+    dataSource.setJdbcUrl("jdbc:h2:mem:transfer;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+    dataSource.setMaximumPoolSize(poolSize);
+    createMembers();
+
+    MemberRepositoryV1 memberRepository = new MemberRepositoryV1(dataSource);
+    manualService = new MemberServiceV1(dataSource, memberRepository);
+    handwrittenProxy = new ProxyInMemberService(dataSource).getMemberServiceProxy(new MemberServiceV2Impl(memberRepository));
+
+    // ContainerService와 같은 구성이지만 TCP 서버 대신 인메모리 DataSource를 사용한다.
+    DataSource lazyDataSource = new LazyConnectionDataSource(dataSource);
+    BeanRegistry registry = new BeanRegistry();
+    registry.registerSingleton(DataSource.class, lazyDataSource);
+    registry.registerSingleton(StatementCache.class, new StatementCache());
+    registry.registerSingleton(MemberCache.class, new MemberCache(10_000, Duration.ofSeconds(5)));
+    MyTransactionManager transactionManager = new MyTransactionManager(lazyDataSource);
+    registry.registerSingleton(MyTransactionManager.class, transactionManager);
+    registry.registerAdvisor(new TransactionAdvisor(transactionManager));
+    registry.registerBean(MemberRepositoryV1.class);
+    registry.registerBean(MemberServiceV2Impl.class);
+    containerProxy = registry.getBean(MemberServiceV2.class);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws SQLException {
+    try (Connection con = dataSource.getConnection(); Statement stmt = con.createStatement()) {
+      stmt.execute("drop table member");
+    }
+    dataSource.close();
+  }
+
+  @Benchmark
+  public void manualTransaction() throws SQLException {
+    manualService.accountTransfer(randomMember(), randomMember(), 1);
+  }
+
+  @Benchmark
+  public void handwrittenProxy() throws SQLException {
+    handwrittenProxy.accountTransfer(randomMember(), randomMember(), 1);
+  }
+
+  @Benchmark
+  public void containerProxy() throws SQLException {
+    containerProxy.accountTransfer(randomMember(), randomMember(), 1);
+  }
+
+  private String randomMember() {
+    return "m" + ThreadLocalRandom.current().nextInt(accounts);
+  }
+
+  private void createMembers() throws SQLException {
+    try (Connection con = dataSource.getConnection()) {
+      try (Statement stmt = con.createStatement()) {
+        stmt.execute("create table member (member_id varchar(10) primary key, money integer not null default 0)");
+      }
+      try (PreparedStatement pstmt = con.prepareStatement("insert into member(member_id, money) values(?,?)")) {
+        for (int i = 0; i < accounts; i++) {
+          pstmt.setString(1, "m" + i);
+          pstmt.setInt(2, INITIAL_MONEY);
+          pstmt.addBatch();
+        }
+        pstmt.executeBatch();
+      }
+    }
+  }
+}
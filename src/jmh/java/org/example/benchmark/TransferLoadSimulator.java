@@ -0,0 +1,385 @@
+package org.example.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.db.LazyConnectionDataSource;
+import org.example.db.StatementCache;
+import org.example.di.BeanRegistry;
+import org.example.di.TransactionAdvisor;
+import org.example.member.MemberCache;
+import org.example.member.MemberRepositoryV1;
+import org.example.member.MemberServiceV2;
+import org.example.member.MemberServiceV2Impl;
+import org.example.metrics.Histogram;
+import org.example.metrics.MetricsRegistry;
+import org.example.metrics.TransactionMetrics;
+import org.example.transactional.MyTransactionManager;
+import org.example.transactional.TransactionAttributeSource;
+import org.example.transactional.TransactionTimedOutException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// 여러 스레드가 N개 계좌 사이에서 MemberServiceV2 이체를 계속 실행하는 부하 시뮬레이터 (임베디드 인메모리 H2)
+// 계좌 선택은 균등 분포 또는 Zipf 분포(일부 계좌에 이체가 몰림)로 고른다.
+// 스레드 수를 늘려가며 처리량과 p50/p99/p999 지연 시간, 롤백/데드락/재시도 수를 출력해 포화 지점을 찾는다.
+// 단계마다 전체 잔액이 보존되고 음수 잔액이 없는지 확인하고, 깨지면 예외로 종료한다.
+// ./gradlew loadSimulation -Pthreads=1,2,4,8,16 -Paccounts=1000 -Pskew=zipf:1.1 -Pseconds=10
+public class TransferLoadSimulator implements AutoCloseable {
+
+  private static final String JDBC_URL = "jdbc:h2:mem:simulation;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+
+  private final int accounts;
+  private final int initialMoney;
+  private final int maxAmount;
+  private final AccountSelector selector;
+  private final HikariDataSource dataSource;
+  private final MemberServiceV2 memberService;
+  private final String metricsName;
+
+  public TransferLoadSimulator(int accounts, int poolSize, int initialMoney, int maxAmount, AccountSelector selector)
+          throws SQLException {
+    this.accounts = accounts;
+    this.initialMoney = initialMoney;
+    this.maxAmount = maxAmount;
+    this.selector = selector;
+
+    dataSource = new HikariDataSource();
+    dataSource.setJdbcUrl(JDBC_URL);
+    dataSource.setMaximumPoolSize(poolSize);
+    createMembers();
+
+    // ContainerService와 같은 구성이지만 TCP 서버 대신 인메모리 DataSource를 사용한다.
+    DataSource lazyDataSource = new LazyConnectionDataSource(dataSource);
+    BeanRegistry registry = new BeanRegistry();
+    registry.registerSingleton(DataSource.class, lazyDataSource);
+    registry.registerSingleton(StatementCache.class, new StatementCache());
+    registry.registerSingleton(MemberCache.class, new MemberCache(10_000, Duration.ofSeconds(5)));
+    MyTransactionManager transactionManager = new MyTransactionManager(lazyDataSource);
+    registry.registerSingleton(MyTransactionManager.class, transactionManager);
+    registry.registerAdvisor(new TransactionAdvisor(transactionManager));
+    registry.registerBean(MemberRepositoryV1.class);
+    registry.registerBean(MemberServiceV2Impl.class);
+    memberService = registry.getBean(MemberServiceV2.class);
+
+    try {
+      metricsName = TransactionAttributeSource.getAttribute(
+              MemberServiceV2Impl.class.getMethod("accountTransfer", String.class, String.class, int.class),
+              MemberServiceV2Impl.class).getName();
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    List<Integer> threadCounts = new ArrayList<>();
+    for (String threads : property("threads", "1,2,4,8,16").split(",")) {
+      threadCounts.add(Integer.parseInt(threads.trim()));
+    }
+    int accounts = Integer.parseInt(property("accounts", "1000"));
+    int poolSize = Integer.parseInt(property("poolSize", "16"));
+    Duration duration = Duration.ofSeconds(Long.parseLong(property("seconds", "10")));
+    AccountSelector selector = AccountSelector.parse(property("skew", "uniform"), accounts);
+
+    try (TransferLoadSimulator simulator = new TransferLoadSimulator(accounts, poolSize, 10_000, 100, selector)) {
+      System.out.println("accounts=" + accounts + " pool=" + poolSize + " skew=" + selector + " duration=" + duration);
+      System.out.println(Result.HEADER);
+      for (int threads : threadCounts) {
+        simulator.run(threads, duration.dividedBy(5), false); // 워밍업
+        System.out.println(simulator.run(threads, duration, true));
+      }
+    }
+  }
+
+  private static String property(String name, String defaultValue) {
+    return System.getProperty("simulation." + name, defaultValue);
+  }
+
+  public Result run(int threads, Duration duration, boolean verify) throws SQLException, InterruptedException {
+    TransactionMetrics metrics = MetricsRegistry.global().transactionMetrics(metricsName);
+    long rollbacksBefore = metrics.getRollbackCount();
+    long retriesBefore = metrics.getRetryCount();
+    long balanceBefore = totalBalance();
+
+    Histogram latency = new Histogram();
+    LongAdder committed = new LongAdder();
+    LongAdder insufficient = new LongAdder();
+    LongAdder deadlocks = new LongAdder();
+    LongAdder timeouts = new LongAdder();
+    LongAdder failures = new LongAdder();
+
+    long deadline = System.nanoTime() + duration.toNanos();
+    CountDownLatch done = new CountDownLatch(threads);
+    long start = System.nanoTime();
+    for (int i = 0; i < threads; i++) {
+      Thread worker = new Thread(() -> {
+        try {
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          while (System.nanoTime() < deadline) {
+            int from = selector.next(random);
+            int to = selector.next(random);
+            if (from == to) {
+              continue;
+            }
+
+            long begin = System.nanoTime();
+            try {
+              memberService.accountTransfer(memberId(from), memberId(to), 1 + random.nextInt(maxAmount));
+              committed.increment();
+            } catch (Exception e) {
+              classify(e, insufficient, deadlocks, timeouts, failures);
+            }
+            latency.record(System.nanoTime() - begin);
+          }
+        } finally {
+          done.countDown();
+        }
+      }, "transfer-load-" + i);
+      worker.start();
+    }
+    done.await();
+    long elapsed = System.nanoTime() - start;
+
+    if (verify) {
+      verifyInvariants(balanceBefore);
+    }
+    return new Result(threads, elapsed, latency, committed.sum(), insufficient.sum(), deadlocks.sum(), timeouts.sum(),
+            failures.sum(), metrics.getRollbackCount() - rollbacksBefore, metrics.getRetryCount() - retriesBefore);
+  }
+
+  // 이체는 돈을 옮기기만 하므로 전체 잔액은 항상 같아야 하고, 잔액 검사를 통과한 출금만 반영되어야 한다.
+  public void verifyInvariants(long expectedTotal) throws SQLException {
+    long total = totalBalance();
+    if (total != expectedTotal) {
+      throw new IllegalStateException("balance not conserved expected = " + expectedTotal + " actual = " + total);
+    }
+
+    try (Connection con = dataSource.getConnection();
+         Statement stmt = con.createStatement();
+         ResultSet rs = stmt.executeQuery("select count(*) from member where money < 0")) {
+      rs.next();
+      if (rs.getLong(1) != 0) {
+        throw new IllegalStateException("negative balance accounts = " + rs.getLong(1));
+      }
+    }
+  }
+
+  public long totalBalance() throws SQLException {
+    try (Connection con = dataSource.getConnection();
+         Statement stmt = con.createStatement();
+         ResultSet rs = stmt.executeQuery("select sum(cast(money as bigint)) from member")) {
+      rs.next();
+      return rs.getLong(1);
+    }
+  }
+
+  @Override
+  public void close() throws SQLException {
+    try (Connection con = dataSource.getConnection(); Statement stmt = con.createStatement()) {
+      stmt.execute("drop table member");
+    }
+    dataSource.close();
+  }
+
+  // 인터셉터가 SQLException을 감싸서 던질 수 있으므로 원인을 따라가며 SQLState로 분류한다.
+  private static void classify(Exception e, LongAdder insufficient, LongAdder deadlocks, LongAdder timeouts, LongAdder failures) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof TransactionTimedOutException) {
+        timeouts.increment();
+        return;
+      }
+      if (cause instanceof SQLException) {
+        String sqlState = ((SQLException) cause).getSQLState();
+        if (sqlState != null && sqlState.startsWith("40")) { // 데드락/직렬화 실패 (재시도 횟수 초과)
+          deadlocks.increment();
+          return;
+        }
+        if ("HYT00".equals(sqlState)) { // 락 대기 시간 초과
+          timeouts.increment();
+          return;
+        }
+      }
+    }
+
+    if (e instanceof IllegalStateException && String.valueOf(e.getMessage()).startsWith("잔액 부족")) {
+      insufficient.increment();
+      return;
+    }
+    failures.increment();
+  }
+
+  private static String memberId(int index) {
+    return "m" + index;
+  }
+
+  private void createMembers() throws SQLException {
+    try (Connection con = dataSource.getConnection()) {
+      try (Statement stmt = con.createStatement()) {
+        stmt.execute("create table member (member_id varchar(10) primary key, money integer not null default 0)");
+      }
+      try (PreparedStatement pstmt = con.prepareStatement("insert into member(member_id, money) values(?,?)")) {
+        for (int i = 0; i < accounts; i++) {
+          pstmt.setString(1, memberId(i));
+          pstmt.setInt(2, initialMoney);
+          pstmt.addBatch();
+        }
+        pstmt.executeBatch();
+      }
+    }
+  }
+
+  // 이체할 계좌 번호(0..accounts-1)를 고른다.
+  public interface AccountSelector {
+
+    int next(ThreadLocalRandom random);
+
+    static AccountSelector parse(String skew, int accounts) {
+      if (skew.equals("uniform")) {
+        return uniform(accounts);
+      }
+      if (skew.startsWith("zipf:")) {
+        return zipf(accounts, Double.parseDouble(skew.substring("zipf:".length())));
+      }
+      throw new IllegalArgumentException("unknown skew = " + skew + " (uniform | zipf:<exponent>)");
+    }
+
+    static AccountSelector uniform(int accounts) {
+      return new AccountSelector() {
+        @Override
+        public int next(ThreadLocalRandom random) {
+          return random.nextInt(accounts);
+        }
+
+        @Override
+        public String toString() {
+          return "uniform";
+        }
+      };
+    }
+
+    // k번째 계좌가 선택될 확률이 1/k^exponent에 비례한다. 누적 분포를 미리 만들어 두고 이진 탐색으로 뽑는다.
+    static AccountSelector zipf(int accounts, double exponent) {
+      double[] cdf = new double[accounts];
+      double sum = 0;
+      for (int k = 0; k < accounts; k++) {
+        sum += 1 / Math.pow(k + 1, exponent);
+        cdf[k] = sum;
+      }
+      for (int k = 0; k < accounts; k++) {
+        cdf[k] /= sum;
+      }
+
+      return new AccountSelector() {
+        @Override
+        public int next(ThreadLocalRandom random) {
+          double u = random.nextDouble();
+          int low = 0;
+          int high = accounts - 1;
+          while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cdf[mid] < u) {
+              low = mid + 1;
+            } else {
+              high = mid;
+            }
+          }
+          return low;
+        }
+
+        @Override
+        public String toString() {
+          return "zipf:" + exponent;
+        }
+      };
+    }
+  }
+
+  public static class Result {
+
+    static final String HEADER = String.format("%8s %12s %10s %10s %10s %10s %10s %10s %10s %10s %10s %10s",
+            "threads", "ops/s", "p50(us)", "p99(us)", "p999(us)", "committed", "no-funds", "rollback", "retry", "deadlock", "timeout",
+            "failed");
+
+    private final int threads;
+    private final long elapsedNanos;
+    private final Histogram latency;
+    private final long committed;
+    private final long insufficient;
+    private final long deadlocks;
+    private final long timeouts;
+    private final long failures;
+    private final long rollbacks;
+    private final long retries;
+
+    private Result(int threads, long elapsedNanos, Histogram latency, long committed, long insufficient, long deadlocks,
+                   long timeouts, long failures, long rollbacks, long retries) {
+      this.threads = threads;
+      this.elapsedNanos = elapsedNanos;
+      this.latency = latency;
+      this.committed = committed;
+      this.insufficient = insufficient;
+      this.deadlocks = deadlocks;
+      this.timeouts = timeouts;
+      this.failures = failures;
+      this.rollbacks = rollbacks;
+      this.retries = retries;
+    }
+
+    // 잔액 부족으로 롤백된 이체도 한 건의 처리로 본다.
+    public double getThroughput() {
+      return latency.getCount() / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    public Histogram getLatency() {
+      return latency;
+    }
+
+    public long getCommitted() {
+      return committed;
+    }
+
+    public long getInsufficient() {
+      return insufficient;
+    }
+
+    public long getDeadlocks() {
+      return deadlocks;
+    }
+
+    public long getTimeouts() {
+      return timeouts;
+    }
+
+    public long getFailures() {
+      return failures;
+    }
+
+    public long getRollbacks() {
+      return rollbacks;
+    }
+
+    public long getRetries() {
+      return retries;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%8d %12.1f %10d %10d %10d %10d %10d %10d %10d %10d %10d %10d",
+              threads, getThroughput(),
+              TimeUnit.NANOSECONDS.toMicros(latency.percentile(0.5)),
+              TimeUnit.NANOSECONDS.toMicros(latency.percentile(0.99)),
+              TimeUnit.NANOSECONDS.toMicros(latency.percentile(0.999)),
+              committed, insufficient, rollbacks, retries, deadlocks, timeouts, failures);
+    }
+  }
+}
@@ -5,4 +5,7 @@ public class ConnectionConst {
   public static final String URL = "jdbc:h2:tcp://localhost/~/transactional";
   public static final String USERNAME = "sa";
   public static final String PASSWORD = "";
+
+  // 읽기 전용 트랜잭션이 사용하는 복제본. 로컬에서는 같은 DB를 별도 풀로 붙여서 대신한다.
+  public static final String READ_URL = "jdbc:h2:tcp://localhost/~/transactional";
 }
@@ -0,0 +1,287 @@
+package org.example.db;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.CodeSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// 트랜잭션이 빌려간 커넥션을 추적해서 오래 잡고 있거나 반납하지 않은 커넥션을 찾는다.
+// 획득 스택은 N번에 한 번만 수집하고, 주기적인 검사에서 임계값을 넘은 커넥션과 소유 스레드가 종료된 커넥션을 보고한다.
+// 스레드가 종료되어 아무도 쓸 수 없는 커넥션은 닫아서 풀에 돌려준다.
+public class ConnectionLeakDetector implements AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(ConnectionLeakDetector.class);
+
+  private static final StackWalker WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+  private static final Pattern INFRASTRUCTURE_PACKAGES = Pattern.compile("org\\.example\\.(db|transactional|di)\\.");
+  private static final CodeSource CODE_SOURCE = ConnectionLeakDetector.class.getProtectionDomain().getCodeSource();
+
+  private final long thresholdNanos;
+  private final int stackSampleRate;
+  private final Set<Lease> active = ConcurrentHashMap.newKeySet();
+  private final Map<String, MethodStats> stats = new ConcurrentHashMap<>();
+  private final AtomicLong acquisitions = new AtomicLong();
+  private final ScheduledExecutorService scanner;
+
+  public ConnectionLeakDetector(Duration longHoldThreshold, int stackSampleRate) {
+    this.thresholdNanos = longHoldThreshold.toNanos();
+    this.stackSampleRate = Math.max(1, stackSampleRate);
+    this.scanner = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "connection-leak-detector");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long period = Math.max(1, longHoldThreshold.toMillis() / 2);
+    scanner.scheduleWithFixedDelay(this::scanQuietly, period, period, TimeUnit.MILLISECONDS);
+  }
+
+  public Lease acquired(Connection connection, String name) {
+    StackTraceElement[] stack = acquisitions.getAndIncrement() % stackSampleRate == 0 ? callerStack() : null;
+    Lease lease = new Lease(connection, name, Thread.currentThread(), System.nanoTime(), stack);
+    active.add(lease);
+    statsFor(name).acquired.increment();
+    return lease;
+  }
+
+  public void released(Lease lease) {
+    if (!active.remove(lease)) {
+      return; // 누수로 보고되어 이미 회수된 커넥션
+    }
+
+    long held = System.nanoTime() - lease.acquiredNanos;
+    MethodStats methodStats = statsFor(lease.name);
+    methodStats.recordHold(held);
+    if (held > thresholdNanos && !lease.reported) { // 검사 주기 사이에 끝난 긴 점유
+      methodStats.longHolds.increment();
+    }
+  }
+
+  // 반납 중 예외가 나면 커넥션이 풀에 돌아갔는지 알 수 없으므로 메서드별로 따로 센다.
+  public void releaseFailed(Lease lease, SQLException e) {
+    statsFor(lease.name).releaseFailures.increment();
+    logger.error("connection release failed method = {} thread = {}", lease.name, lease.owner.getName(), e);
+  }
+
+  public void scan() {
+    long now = System.nanoTime();
+    for (Lease lease : active) {
+      if (!lease.owner.isAlive()) {
+        reclaim(lease);
+      } else if (!lease.reported && now - lease.acquiredNanos > thresholdNanos) {
+        lease.reported = true;
+        MethodStats methodStats = statsFor(lease.name);
+        methodStats.longHolds.increment();
+        methodStats.recordStack(lease.stack);
+        logger.warn("connection held for {}ms method = {} thread = {}{}", TimeUnit.NANOSECONDS.toMillis(now - lease.acquiredNanos),
+                lease.name, lease.owner.getName(), formatStack(lease.stack));
+      }
+    }
+  }
+
+  public int getActiveCount() {
+    return active.size();
+  }
+
+  public List<MethodStats> getStats() {
+    return new ArrayList<>(stats.values());
+  }
+
+  // 누수, 긴 점유, 반납 실패, 최대 점유 시간 순으로 나쁜 메서드를 고른다.
+  public List<MethodStats> worstOffenders(int limit) {
+    return stats.values().stream()
+            .filter(MethodStats::isOffender)
+            .sorted(Comparator.comparingLong(MethodStats::getLeaks)
+                    .thenComparingLong(MethodStats::getLongHolds)
+                    .thenComparingLong(MethodStats::getReleaseFailures)
+                    .thenComparingLong(MethodStats::getMaxHoldNanos)
+                    .reversed())
+            .limit(limit)
+            .collect(Collectors.toList());
+  }
+
+  public String report(int limit) {
+    StringBuilder sb = new StringBuilder();
+    for (MethodStats methodStats : worstOffenders(limit)) {
+      sb.append(methodStats).append('\n');
+      if (methodStats.sampleStack != null) {
+        sb.append(formatStack(methodStats.sampleStack).substring(1)).append('\n');
+      }
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public void close() {
+    scanner.shutdownNow();
+  }
+
+  private void reclaim(Lease lease) {
+    if (!active.remove(lease)) {
+      return;
+    }
+
+    MethodStats methodStats = statsFor(lease.name);
+    methodStats.leaks.increment();
+    methodStats.recordStack(lease.stack);
+    logger.error("connection leaked by terminated thread method = {} thread = {}{}", lease.name, lease.owner.getName(),
+            formatStack(lease.stack));
+    try {
+      lease.connection.close();
+    } catch (SQLException e) {
+      logger.error("leaked connection close error", e);
+    }
+  }
+
+  private void scanQuietly() {
+    try {
+      scan();
+    } catch (RuntimeException e) {
+      logger.error("connection leak scan error", e);
+    }
+  }
+
+  private MethodStats statsFor(String name) {
+    MethodStats methodStats = stats.get(name);
+    if (methodStats != null) {
+      return methodStats;
+    }
+    return stats.computeIfAbsent(name, MethodStats::new);
+  }
+
+  // 획득 경로는 직접 획득, 지연 커넥션의 첫 SQL, 프록시 등으로 깊이가 일정하지 않으므로
+  // 앞쪽의 내부 프레임을 모두 건너뛰어 첫 프레임이 커넥션을 쓴 서비스나 리포지토리가 되게 한다.
+  private static StackTraceElement[] callerStack() {
+    return WALKER.walk(frames -> frames
+            .dropWhile(ConnectionLeakDetector::isInfrastructure)
+            .map(StackWalker.StackFrame::toStackTraceElement)
+            .toArray(StackTraceElement[]::new));
+  }
+
+  // 생성된 프록시와 JDK 동적 프록시, 그리고 이 라이브러리의 db/transactional/di 클래스.
+  // 같은 패키지라도 다른 코드 소스(테스트 등)에서 온 클래스는 호출한 쪽으로 본다.
+  private static boolean isInfrastructure(StackWalker.StackFrame frame) {
+    String className = frame.getClassName();
+    if (className.contains("$$") || className.startsWith("jdk.proxy") || className.startsWith("com.sun.proxy.")) {
+      return true;
+    }
+    if (!INFRASTRUCTURE_PACKAGES.matcher(className).lookingAt()) {
+      return false;
+    }
+    return Objects.equals(frame.getDeclaringClass().getProtectionDomain().getCodeSource(), CODE_SOURCE);
+  }
+
+  private static String formatStack(StackTraceElement[] stack) {
+    if (stack == null) {
+      return "";
+    }
+    return Arrays.stream(stack).map(frame -> "\n\tat " + frame).collect(Collectors.joining());
+  }
+
+  public static class Lease {
+
+    private final Connection connection;
+    private final String name;
+    private final Thread owner;
+    private final long acquiredNanos;
+    private final StackTraceElement[] stack;
+    private volatile boolean reported;
+
+    private Lease(Connection connection, String name, Thread owner, long acquiredNanos, StackTraceElement[] stack) {
+      this.connection = connection;
+      this.name = name;
+      this.owner = owner;
+      this.acquiredNanos = acquiredNanos;
+      this.stack = stack;
+    }
+  }
+
+  public static class MethodStats {
+
+    private final String name;
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder longHolds = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+    private final LongAdder releaseFailures = new LongAdder();
+    private final LongAdder totalHoldNanos = new LongAdder();
+    private final AtomicLong maxHoldNanos = new AtomicLong();
+    private volatile StackTraceElement[] sampleStack;
+
+    private MethodStats(String name) {
+      this.name = name;
+    }
+
+    private void recordHold(long nanos) {
+      totalHoldNanos.add(nanos);
+      long current = maxHoldNanos.get();
+      while (nanos > current && !maxHoldNanos.compareAndSet(current, nanos)) {
+        current = maxHoldNanos.get();
+      }
+    }
+
+    private void recordStack(StackTraceElement[] stack) {
+      if (stack != null) {
+        sampleStack = stack;
+      }
+    }
+
+    private boolean isOffender() {
+      return getLeaks() + getLongHolds() + getReleaseFailures() > 0;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public long getAcquired() {
+      return acquired.sum();
+    }
+
+    public long getLongHolds() {
+      return longHolds.sum();
+    }
+
+    public long getLeaks() {
+      return leaks.sum();
+    }
+
+    public long getReleaseFailures() {
+      return releaseFailures.sum();
+    }
+
+    public long getMaxHoldNanos() {
+      return maxHoldNanos.get();
+    }
+
+    public long getTotalHoldNanos() {
+      return totalHoldNanos.sum();
+    }
+
+    @Override
+    public String toString() {
+      return name +
+              " acquired=" + getAcquired() +
+              " leaks=" + getLeaks() +
+              " longHolds=" + getLongHolds() +
+              " releaseFailures=" + getReleaseFailures() +
+              " maxHoldMs=" + TimeUnit.NANOSECONDS.toMillis(getMaxHoldNanos());
+    }
+  }
+}
@@ -1,12 +1,14 @@
 package org.example.db;
 
 import com.zaxxer.hikari.HikariDataSource;
+import org.example.metrics.MetricsRegistry;
 
 import static org.example.db.ConnectionConst.*;
 
 public class DBConnectionUtil {
 
   private static final HikariDataSource dataSource = new HikariDataSource();
+  private static final HikariDataSource readDataSource = new HikariDataSource();
 
   static {
     dataSource.setJdbcUrl(URL);
@@ -14,6 +16,16 @@ public class DBConnectionUtil {
     dataSource.setPassword(PASSWORD);
     dataSource.setMaximumPoolSize(10);
     dataSource.setPoolName("MyPool");
+
+    readDataSource.setJdbcUrl(READ_URL);
+    readDataSource.setUsername(USERNAME);
+    readDataSource.setPassword(PASSWORD);
+    readDataSource.setMaximumPoolSize(10);
+    readDataSource.setReadOnly(true); // 풀에서 꺼낼 때부터 읽기 전용
+    readDataSource.setPoolName("MyReadPool");
+
+    MetricsRegistry.global().registerPool(dataSource);
+    MetricsRegistry.global().registerPool(readDataSource);
   }
 
   private DBConnectionUtil() {
@@ -22,4 +34,8 @@ public class DBConnectionUtil {
   public static HikariDataSource getDataSource() {
     return dataSource;
   }
+
+  public static HikariDataSource getReadDataSource() {
+    return readDataSource;
+  }
 }
@@ -0,0 +1,250 @@
+package org.example.db;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.logging.Logger;
+
+// 커넥션 상태 변경(autoCommit, readOnly, 격리 수준)은 기록만 해두고, 처음 SQL을 준비할 때 풀에서 물리 커넥션을 빌린다.
+// DB를 쓰지 않고 끝나는 트랜잭션은 커넥션을 빌리지 않고, 검증 같은 자바 코드가 도는 동안에도 커넥션을 붙잡지 않는다.
+public class LazyConnectionDataSource implements DataSource {
+
+  private final DataSource targetDataSource;
+
+  // 풀에서 막 꺼낸 커넥션의 기본 상태. 처음 필요할 때 한 번 확인한다.
+  private volatile Boolean defaultAutoCommit;
+  private volatile Boolean defaultReadOnly;
+  private volatile Integer defaultTransactionIsolation;
+
+  public LazyConnectionDataSource(DataSource targetDataSource) {
+    this.targetDataSource = targetDataSource;
+  }
+
+  public DataSource getTargetDataSource() {
+    return targetDataSource;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return createProxy(null, null);
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return createProxy(username, password);
+  }
+
+  // 물리 커넥션을 빌릴 때 호출할 리스너를 등록한다. 지연 커넥션이 아니면 등록하지 않고 false
+  // 트랜잭션 매니저는 이 시점에 커넥션 대기 시간과 점유 시작을 기록한다.
+  public static boolean setBorrowListener(Connection con, BorrowListener listener) {
+    if (con != null && Proxy.isProxyClass(con.getClass()) && Proxy.getInvocationHandler(con) instanceof LazyConnectionHandler) {
+      ((LazyConnectionHandler) Proxy.getInvocationHandler(con)).borrowListener = listener;
+      return true;
+    }
+    return false;
+  }
+
+  // 실제로 물리 커넥션을 빌렸는지 확인한다. 지연 커넥션이 아니면 항상 true
+  public static boolean isBorrowed(Connection con) {
+    if (con != null && Proxy.isProxyClass(con.getClass()) && Proxy.getInvocationHandler(con) instanceof LazyConnectionHandler) {
+      return ((LazyConnectionHandler) Proxy.getInvocationHandler(con)).target != null;
+    }
+    return true;
+  }
+
+  private Connection createProxy(String username, String password) {
+    return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class[]{Connection.class},
+            new LazyConnectionHandler(username, password));
+  }
+
+  private void checkDefaults(Connection con) throws SQLException {
+    if (defaultTransactionIsolation == null) {
+      defaultAutoCommit = con.getAutoCommit();
+      defaultReadOnly = con.isReadOnly();
+      defaultTransactionIsolation = con.getTransactionIsolation();
+    }
+  }
+
+  private void checkDefaults() throws SQLException {
+    if (defaultTransactionIsolation == null) {
+      try (Connection con = targetDataSource.getConnection()) {
+        checkDefaults(con);
+      }
+    }
+  }
+
+  @Override
+  public PrintWriter getLogWriter() throws SQLException {
+    return targetDataSource.getLogWriter();
+  }
+
+  @Override
+  public void setLogWriter(PrintWriter out) throws SQLException {
+    targetDataSource.setLogWriter(out);
+  }
+
+  @Override
+  public void setLoginTimeout(int seconds) throws SQLException {
+    targetDataSource.setLoginTimeout(seconds);
+  }
+
+  @Override
+  public int getLoginTimeout() throws SQLException {
+    return targetDataSource.getLoginTimeout();
+  }
+
+  @Override
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+    return targetDataSource.getParentLogger();
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    if (iface.isInstance(this)) {
+      return iface.cast(this);
+    }
+    return targetDataSource.unwrap(iface);
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    return iface.isInstance(this) || targetDataSource.isWrapperFor(iface);
+  }
+
+  public interface BorrowListener {
+
+    // acquireNanos: 풀에서 커넥션을 얻기까지 기다린 시간
+    void borrowed(long acquireNanos);
+  }
+
+  // 한 커넥션은 한 번에 한 스레드만 사용하므로 동기화하지 않는다.
+  private class LazyConnectionHandler implements InvocationHandler {
+
+    private final String username;
+    private final String password;
+
+    private Connection target;
+    private Boolean autoCommit;
+    private Boolean readOnly;
+    private Integer transactionIsolation;
+    private boolean closed;
+    private BorrowListener borrowListener;
+
+    private LazyConnectionHandler(String username, String password) {
+      this.username = username;
+      this.password = password;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "toString":
+          return "LazyConnection[" + (target != null ? target : "not borrowed") + "]";
+        case "isClosed":
+          return closed;
+        case "close":
+          closed = true;
+          if (target != null) {
+            target.close();
+          }
+          return null;
+      }
+
+      if (target == null) {
+        if (closed) {
+          throw new SQLException("connection is closed");
+        }
+
+        switch (method.getName()) {
+          case "setAutoCommit":
+            autoCommit = (Boolean) args[0];
+            return null;
+          case "getAutoCommit":
+            if (autoCommit != null) {
+              return autoCommit;
+            }
+            checkDefaults();
+            return defaultAutoCommit;
+          case "setReadOnly":
+            readOnly = (Boolean) args[0];
+            return null;
+          case "isReadOnly":
+            if (readOnly != null) {
+              return readOnly;
+            }
+            checkDefaults();
+            return defaultReadOnly;
+          case "setTransactionIsolation":
+            transactionIsolation = (Integer) args[0];
+            return null;
+          case "getTransactionIsolation":
+            if (transactionIsolation != null) {
+              return transactionIsolation;
+            }
+            checkDefaults();
+            return defaultTransactionIsolation;
+          case "commit":
+          case "rollback":
+          case "clearWarnings":
+            if (args == null) { // 아직 아무 SQL도 실행하지 않았으므로 커밋/롤백할 것이 없다.
+              return null;
+            }
+            break;
+          case "getWarnings":
+            return null;
+        }
+      }
+
+      try {
+        return method.invoke(getTarget(), args);
+      } catch (InvocationTargetException e) {
+        throw e.getTargetException();
+      }
+    }
+
+    // 처음 SQL을 준비할 때 풀에서 커넥션을 빌리고, 기록해둔 상태를 그대로 적용한다.
+    private Connection getTarget() throws SQLException {
+      if (target != null) {
+        return target;
+      }
+
+      long acquireStart = System.nanoTime();
+      Connection con = username != null
+              ? targetDataSource.getConnection(username, password)
+              : targetDataSource.getConnection();
+      long acquireNanos = System.nanoTime() - acquireStart;
+      try {
+        checkDefaults(con);
+        if (readOnly != null && !readOnly.equals(defaultReadOnly)) {
+          con.setReadOnly(readOnly);
+        }
+        if (transactionIsolation != null && !transactionIsolation.equals(defaultTransactionIsolation)) {
+          con.setTransactionIsolation(transactionIsolation);
+        }
+        if (autoCommit != null && !autoCommit.equals(defaultAutoCommit)) {
+          con.setAutoCommit(autoCommit);
+        }
+      } catch (SQLException | RuntimeException e) {
+        con.close();
+        throw e;
+      }
+      target = con;
+      if (borrowListener != null) {
+        borrowListener.borrowed(acquireNanos);
+      }
+      return con;
+    }
+  }
+}
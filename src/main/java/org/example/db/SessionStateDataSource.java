@@ -0,0 +1,267 @@
+package org.example.db;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+// 커넥션의 세션 상태(autoCommit, 격리 수준, readOnly, 스키마)를 기억해서 값이 바뀌지 않는 설정 호출과 조회 호출을 드라이버에 보내지 않는다.
+// 반납할 때는 풀의 기본 상태와 달라진 항목만 되돌린다. 드라이버에 따라 이 호출 하나하나가 DB 왕복이다.
+// 풀에서 꺼낸 커넥션은 기본 상태라고 가정하므로, 이 DataSource를 거치지 않고 상태를 바꾼 채 반납하면 안 된다.
+public class SessionStateDataSource implements DataSource {
+
+  private final DataSource targetDataSource;
+  private final LongAdder elidedCalls = new LongAdder();
+  private final LongAdder appliedCalls = new LongAdder();
+
+  // 풀에서 막 꺼낸 커넥션의 기본 상태. 처음 빌린 커넥션에서 한 번 확인한다.
+  private volatile SessionState defaults;
+
+  public SessionStateDataSource(DataSource targetDataSource) {
+    this.targetDataSource = targetDataSource;
+  }
+
+  public DataSource getTargetDataSource() {
+    return targetDataSource;
+  }
+
+  // 값이 같아 생략한 설정/조회 호출 수
+  public long getElidedCalls() {
+    return elidedCalls.sum();
+  }
+
+  // 상태가 실제로 바뀌어 드라이버로 보낸 설정 호출 수 (반납 시 복구 포함)
+  public long getAppliedCalls() {
+    return appliedCalls.sum();
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return createProxy(targetDataSource.getConnection());
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return createProxy(targetDataSource.getConnection(username, password));
+  }
+
+  private Connection createProxy(Connection target) throws SQLException {
+    try {
+      SessionState state = defaults;
+      if (state == null) {
+        state = new SessionState(target.getAutoCommit(), target.isReadOnly(), target.getTransactionIsolation(), target.getSchema());
+        defaults = state;
+      }
+      return (Connection) Proxy.newProxyInstance(
+              Connection.class.getClassLoader(),
+              new Class[]{Connection.class},
+              new SessionStateHandler(target, state));
+    } catch (SQLException | RuntimeException e) {
+      target.close();
+      throw e;
+    }
+  }
+
+  @Override
+  public PrintWriter getLogWriter() throws SQLException {
+    return targetDataSource.getLogWriter();
+  }
+
+  @Override
+  public void setLogWriter(PrintWriter out) throws SQLException {
+    targetDataSource.setLogWriter(out);
+  }
+
+  @Override
+  public void setLoginTimeout(int seconds) throws SQLException {
+    targetDataSource.setLoginTimeout(seconds);
+  }
+
+  @Override
+  public int getLoginTimeout() throws SQLException {
+    return targetDataSource.getLoginTimeout();
+  }
+
+  @Override
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+    return targetDataSource.getParentLogger();
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    if (iface.isInstance(this)) {
+      return iface.cast(this);
+    }
+    return targetDataSource.unwrap(iface);
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    return iface.isInstance(this) || targetDataSource.isWrapperFor(iface);
+  }
+
+  private static class SessionState {
+
+    private final boolean autoCommit;
+    private final boolean readOnly;
+    private final int transactionIsolation;
+    private final String schema;
+
+    private SessionState(boolean autoCommit, boolean readOnly, int transactionIsolation, String schema) {
+      this.autoCommit = autoCommit;
+      this.readOnly = readOnly;
+      this.transactionIsolation = transactionIsolation;
+      this.schema = schema;
+    }
+  }
+
+  // 한 커넥션은 한 번에 한 스레드만 사용하므로 동기화하지 않는다.
+  private class SessionStateHandler implements InvocationHandler {
+
+    private final Connection target;
+    private final SessionState defaults;
+
+    private boolean autoCommit;
+    private boolean readOnly;
+    private int transactionIsolation;
+    private String schema;
+    private boolean closed;
+
+    private SessionStateHandler(Connection target, SessionState defaults) {
+      this.target = target;
+      this.defaults = defaults;
+      this.autoCommit = defaults.autoCommit;
+      this.readOnly = defaults.readOnly;
+      this.transactionIsolation = defaults.transactionIsolation;
+      this.schema = defaults.schema;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "toString":
+          return "SessionStateConnection[" + target + "]";
+        case "isClosed":
+          return closed || target.isClosed();
+        case "close":
+          if (!closed) {
+            closed = true;
+            close();
+          }
+          return null;
+      }
+
+      if (closed) {
+        throw new SQLException("connection is closed");
+      }
+
+      switch (method.getName()) {
+        case "getAutoCommit":
+          elidedCalls.increment();
+          return autoCommit;
+        case "isReadOnly":
+          elidedCalls.increment();
+          return readOnly;
+        case "getTransactionIsolation":
+          elidedCalls.increment();
+          return transactionIsolation;
+        case "getSchema":
+          elidedCalls.increment();
+          return schema;
+        case "setAutoCommit":
+          if (autoCommit == (Boolean) args[0]) {
+            elidedCalls.increment();
+            return null;
+          }
+          applyAutoCommit((Boolean) args[0]);
+          return null;
+        case "setReadOnly":
+          if (readOnly == (Boolean) args[0]) {
+            elidedCalls.increment();
+            return null;
+          }
+          applyReadOnly((Boolean) args[0]);
+          return null;
+        case "setTransactionIsolation":
+          if (transactionIsolation == (Integer) args[0]) {
+            elidedCalls.increment();
+            return null;
+          }
+          applyTransactionIsolation((Integer) args[0]);
+          return null;
+        case "setSchema":
+          if (Objects.equals(schema, args[0])) {
+            elidedCalls.increment();
+            return null;
+          }
+          applySchema((String) args[0]);
+          return null;
+      }
+
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw e.getTargetException();
+      }
+    }
+
+    // 달라진 항목만 기본값으로 되돌린다. 커밋하지 않은 작업이 있을 수 있으면 autoCommit을 켜기 전에 롤백한다.
+    private void close() throws SQLException {
+      try {
+        if (autoCommit != defaults.autoCommit) {
+          if (!autoCommit) {
+            target.rollback();
+          }
+          applyAutoCommit(defaults.autoCommit);
+        }
+        if (readOnly != defaults.readOnly) {
+          applyReadOnly(defaults.readOnly);
+        }
+        if (transactionIsolation != defaults.transactionIsolation) {
+          applyTransactionIsolation(defaults.transactionIsolation);
+        }
+        if (!Objects.equals(schema, defaults.schema)) {
+          applySchema(defaults.schema);
+        }
+      } finally {
+        target.close();
+      }
+    }
+
+    private void applyAutoCommit(boolean value) throws SQLException {
+      target.setAutoCommit(value);
+      autoCommit = value;
+      appliedCalls.increment();
+    }
+
+    private void applyReadOnly(boolean value) throws SQLException {
+      target.setReadOnly(value);
+      readOnly = value;
+      appliedCalls.increment();
+    }
+
+    private void applyTransactionIsolation(int value) throws SQLException {
+      target.setTransactionIsolation(value);
+      transactionIsolation = value;
+      appliedCalls.increment();
+    }
+
+    private void applySchema(String value) throws SQLException {
+      target.setSchema(value);
+      schema = value;
+      appliedCalls.increment();
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package org.example.db;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class StatementCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(StatementCache.class);
+
+  public static final int DEFAULT_SIZE = 32;
+
+  private final int maxSize;
+
+  // 풀 프록시가 아닌 물리 커넥션을 키로 쓰기 때문에 커넥션을 반납했다가 다시 빌려도 같은 Statement를 재사용한다.
+  private final Map<Connection, Map<String, PreparedStatement>> caches = new ConcurrentHashMap<>();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public StatementCache() {
+    this(DEFAULT_SIZE);
+  }
+
+  public StatementCache(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  // 반환된 Statement는 캐시 소유이므로 호출한 쪽에서 닫지 않는다(ResultSet은 닫는다).
+  public PreparedStatement prepareStatement(Connection con, String sql) throws SQLException {
+    Connection physical = con.unwrap(Connection.class);
+    // 물리 커넥션은 한 번에 한 스레드만 빌려가므로 커넥션별 맵은 동기화하지 않는다.
+    Map<String, PreparedStatement> statements = caches.get(physical);
+
+    if (statements != null) {
+      PreparedStatement pstmt = statements.get(sql);
+      if (pstmt != null && !pstmt.isClosed()) {
+        hits.increment();
+        return pstmt;
+      }
+    } else {
+      purgeClosedConnections();
+      statements = caches.computeIfAbsent(physical, c -> new LruStatements(maxSize));
+    }
+
+    misses.increment();
+    PreparedStatement pstmt = physical.prepareStatement(sql);
+    statements.put(sql, pstmt);
+    return pstmt;
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  // 풀에서 폐기된 물리 커넥션의 캐시는 새 커넥션이 처음 들어올 때 정리한다.
+  private void purgeClosedConnections() {
+    caches.keySet().removeIf(physical -> {
+      try {
+        return physical.isClosed();
+      } catch (SQLException e) {
+        return true;
+      }
+    });
+  }
+
+  private class LruStatements extends LinkedHashMap<String, PreparedStatement> {
+
+    private final int maxSize;
+
+    private LruStatements(int maxSize) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+      if (size() <= maxSize) {
+        return false;
+      }
+
+      evictions.increment();
+      try {
+        eldest.getValue().close();
+      } catch (SQLException e) {
+        logger.error("statement close error", e);
+      }
+      return true;
+    }
+  }
+}
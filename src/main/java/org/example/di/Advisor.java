@@ -0,0 +1,10 @@
+package org.example.di;
+
+import java.lang.reflect.Method;
+
+// 프록시를 만들 때 메서드마다 한 번 호출되어, 그 메서드에 적용할 인터셉터를 돌려준다. 적용하지 않으면 null
+// 등록 순서대로 바깥쪽부터 감싼다.
+public interface Advisor {
+
+  MethodInterceptor getInterceptor(Method method, Class<?> targetClass);
+}
@@ -0,0 +1,7 @@
+package org.example.di;
+
+// 의존 빈을 생성자 인자 순서대로 받아 빈(인터셉터가 적용되면 생성된 프록시)을 만든다.
+public interface BeanFactory {
+
+  Object create(BeanRegistry registry, Object[] args);
+}
@@ -0,0 +1,11 @@
+package org.example.di;
+
+import java.util.List;
+
+// 어노테이션 프로세서가 컴파일 시점에 생성하는 빈 목록. META-INF/services로 등록되어 ContainerService가 읽는다.
+public interface BeanIndex {
+
+  List<Class<?>> getBeanClasses();
+
+  void registerBeans(BeanRegistry registry);
+}
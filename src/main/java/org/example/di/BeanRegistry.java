@@ -0,0 +1,257 @@
+package org.example.di;
+
+import org.example.transactional.MyTransactionManager;
+import org.example.transactional.TransactionInterceptor;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+public class BeanRegistry {
+
+  // 생성이 끝난 싱글톤(트랜잭션 대상이면 프록시). 조회 시에는 이 맵만 읽는다.
+  private final Map<Class<?>, Object> singletons = new ConcurrentHashMap<>();
+  private final Map<Class<?>, CompletableFuture<Object>> creations = new ConcurrentHashMap<>();
+  private final Map<Class<?>, BeanDefinition> definitions = new ConcurrentHashMap<>();
+  private final List<Class<?>> beanClasses = new CopyOnWriteArrayList<>();
+  private final Map<Class<?>, IndexedBean> indexedBeans = new ConcurrentHashMap<>();
+  private final List<Advisor> advisors = new CopyOnWriteArrayList<>();
+
+  public void registerSingleton(Class<?> type, Object bean) {
+    singletons.put(type, bean);
+    creations.put(type, CompletableFuture.completedFuture(bean));
+  }
+
+  // 빈을 만들기 전에 등록해야 한다. 프록시는 생성 시점의 인터셉터 목록으로 메서드별 체인을 고정한다.
+  public void registerAdvisor(Advisor advisor) {
+    advisors.add(advisor);
+  }
+
+  public List<Advisor> getAdvisors() {
+    return List.copyOf(advisors);
+  }
+
+  // 생성된 프록시는 트랜잭션 속성을 컴파일 시점 상수로 갖고 이 인터셉터를 바로 호출한다.
+  public TransactionInterceptor getTransactionInterceptor() {
+    for (Advisor advisor : advisors) {
+      if (advisor instanceof TransactionAdvisor) {
+        return ((TransactionAdvisor) advisor).getTransactionInterceptor();
+      }
+    }
+    return new TransactionInterceptor(getBean(MyTransactionManager.class));
+  }
+
+  // 생성된 프록시에서 트랜잭션 안쪽에 체인으로 적용할 나머지 인터셉터
+  public List<Advisor> getAdditionalAdvisors() {
+    return advisors.stream()
+            .filter(advisor -> !(advisor instanceof TransactionAdvisor))
+            .collect(Collectors.toList());
+  }
+
+  public void registerBean(Class<?> beanClass) {
+    beanClasses.add(beanClass);
+  }
+
+  // 생성된 BeanIndex가 호출한다. 생성자 탐색과 리플렉션 없이 주어진 팩토리로 빈을 만든다.
+  public void registerBean(Class<?> beanClass, List<Class<?>> dependencies, BeanFactory factory) {
+    indexedBeans.put(beanClass, new IndexedBean(dependencies, factory));
+    beanClasses.add(beanClass);
+  }
+
+  public <T> T getBean(Class<T> type) {
+    Object bean = singletons.get(type);
+    if (bean == null) {
+      bean = join(instantiate(resolveBeanType(type), Runnable::run));
+      singletons.putIfAbsent(type, bean); // 인터페이스로 조회한 경우 다음부터 바로 찾도록 등록
+    }
+    return type.cast(bean);
+  }
+
+  // 서로 의존하지 않는 빈들은 여러 스레드에서 동시에 생성한다.
+  public void preInstantiate(Collection<Class<?>> types) {
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+
+    try {
+      CompletableFuture<?>[] futures = types.stream()
+              .map(type -> instantiate(resolveBeanType(type), executor))
+              .toArray(CompletableFuture[]::new);
+      join(CompletableFuture.allOf(futures));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private CompletableFuture<Object> instantiate(Class<?> beanType, Executor executor) {
+    CompletableFuture<Object> creation = creations.get(beanType);
+    if (creation != null) {
+      return creation;
+    }
+
+    BeanDefinition definition = getDefinition(beanType, new LinkedHashSet<>());
+    List<CompletableFuture<Object>> dependencies = new ArrayList<>();
+    for (Class<?> dependency : definition.dependencies) {
+      dependencies.add(instantiate(dependency, executor));
+    }
+
+    return creations.computeIfAbsent(beanType, t -> CompletableFuture
+            .allOf(dependencies.toArray(CompletableFuture[]::new))
+            .thenApplyAsync(v -> {
+              Object[] args = dependencies.stream().map(CompletableFuture::join).toArray();
+              Object bean = createBean(definition, args);
+              singletons.put(beanType, bean);
+              return bean;
+            }, executor));
+  }
+
+  // 생성자 그래프를 한 번만 분석하고, 분석 경로에 같은 타입이 다시 나오면 순환 참조로 본다.
+  private BeanDefinition getDefinition(Class<?> beanType, LinkedHashSet<Class<?>> path) {
+    BeanDefinition definition = definitions.get(beanType);
+    if (definition != null) {
+      return definition;
+    }
+
+    if (!path.add(beanType)) {
+      String cycle = path.stream().map(Class::getSimpleName).collect(Collectors.joining(" -> "));
+      throw new IllegalStateException("circular dependency: " + cycle + " -> " + beanType.getSimpleName());
+    }
+
+    IndexedBean indexed = indexedBeans.get(beanType);
+    Constructor<?> constructor = indexed == null ? findConstructor(beanType) : null;
+    List<Class<?>> parameterTypes = indexed == null ? List.of(constructor.getParameterTypes()) : indexed.dependencies;
+
+    List<Class<?>> dependencies = new ArrayList<>();
+    for (Class<?> parameterType : parameterTypes) {
+      Class<?> dependency = resolveBeanType(parameterType);
+      if (!singletons.containsKey(dependency)) {
+        getDefinition(dependency, path);
+      }
+      dependencies.add(dependency);
+    }
+    path.remove(beanType);
+
+    definition = new BeanDefinition(beanType, constructor, dependencies, indexed == null ? null : indexed.factory);
+    definitions.putIfAbsent(beanType, definition);
+    return definitions.get(beanType);
+  }
+
+  // 인터페이스는 등록된 싱글톤이나 빈 클래스 중 유일한 구현체로 찾는다.
+  private Class<?> resolveBeanType(Class<?> type) {
+    if (singletons.containsKey(type) || (!type.isInterface() && !Modifier.isAbstract(type.getModifiers()))) {
+      return type;
+    }
+
+    List<Class<?>> candidates = new ArrayList<>();
+    for (Map.Entry<Class<?>, Object> entry : singletons.entrySet()) {
+      if (type.isInstance(entry.getValue())) {
+        candidates.add(entry.getKey());
+      }
+    }
+    for (Class<?> beanClass : beanClasses) {
+      if (type.isAssignableFrom(beanClass) && !candidates.contains(beanClass)) {
+        candidates.add(beanClass);
+      }
+    }
+
+    if (candidates.size() != 1) {
+      throw new IllegalStateException("expected single bean for type = " + type.getName() + " but found " + candidates);
+    }
+    return candidates.get(0);
+  }
+
+  private Constructor<?> findConstructor(Class<?> beanType) {
+    Constructor<?>[] constructors = beanType.getConstructors();
+    for (Constructor<?> constructor : constructors) {
+      if (constructor.isAnnotationPresent(Inject.class)) {
+        return constructor;
+      }
+    }
+
+    if (constructors.length != 1) {
+      throw new IllegalStateException("no @Inject constructor for type = " + beanType.getName());
+    }
+    return constructors[0];
+  }
+
+  private Object createBean(BeanDefinition definition, Object[] args) {
+    if (definition.factory != null) {
+      return definition.factory.create(this, args);
+    }
+
+    Class<?> beanType = definition.type;
+    List<Advisor> advisors = getAdvisors();
+    if (!InterceptorChain.hasAdvice(beanType, advisors)) {
+      return newInstance(definition.constructor, args);
+    }
+
+    Class<?>[] interfaces = beanType.getInterfaces();
+    if (interfaces.length == 0) { // 인터페이스가 없으면 서브클래스 프록시를 생성한다.
+      return SubclassProxyFactory.createProxy(beanType, definition.constructor.getParameterTypes(), args, advisors);
+    }
+
+    Object target = newInstance(definition.constructor, args);
+    return Proxy.newProxyInstance(
+            beanType.getClassLoader(),
+            interfaces,
+            new MyTransactionalHandler(target, interfaces, advisors)
+    );
+  }
+
+  private Object newInstance(Constructor<?> constructor, Object[] args) {
+    try {
+      return constructor.newInstance(args);
+    } catch (InvocationTargetException | InstantiationException | IllegalAccessException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static Object join(CompletableFuture<?> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private static class BeanDefinition {
+
+    private final Class<?> type;
+    private final Constructor<?> constructor;
+    private final List<Class<?>> dependencies;
+    private final BeanFactory factory; // 인덱스로 등록된 빈이면 constructor 대신 사용한다.
+
+    private BeanDefinition(Class<?> type, Constructor<?> constructor, List<Class<?>> dependencies, BeanFactory factory) {
+      this.type = type;
+      this.constructor = constructor;
+      this.dependencies = dependencies;
+      this.factory = factory;
+    }
+  }
+
+  private static class IndexedBean {
+
+    private final List<Class<?>> dependencies;
+    private final BeanFactory factory;
+
+    private IndexedBean(List<Class<?>> dependencies, BeanFactory factory) {
+      this.dependencies = dependencies;
+      this.factory = factory;
+    }
+  }
+}
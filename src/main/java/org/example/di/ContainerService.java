@@ -1,47 +1,74 @@
 package org.example.di;
 
+import org.example.db.ConnectionLeakDetector;
 import org.example.db.DBConnectionUtil;
+import org.example.db.LazyConnectionDataSource;
+import org.example.db.SessionStateDataSource;
+import org.example.db.StatementCache;
+import org.example.member.MemberCache;
 import org.example.member.MemberRepositoryV1;
-import org.example.member.MemberServiceV2;
-import org.example.transactional.MyTransactional;
+import org.example.member.MemberServiceV1;
+import org.example.member.MemberServiceV2Impl;
+import org.example.member.MemberServiceV3;
+import org.example.metrics.MetricsRegistry;
+import org.example.transactional.MyTransactionManager;
 
 import javax.sql.DataSource;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Proxy;
-import java.sql.Connection;
-import java.util.Arrays;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.ServiceLoader;
 
 public class ContainerService {
 
-  private static final DataSource dataSource = DBConnectionUtil.getDataSource();
-  private static final MemberRepositoryV1 memberRepository = new MemberRepositoryV1(dataSource);
-
+  private static final BeanRegistry registry = createRegistry();
 
   private ContainerService() {
   }
 
   public static <T> T getObject(Class<T> classType) {
-    T instance = createServiceInstance(classType);
-
-    return Arrays.stream(classType.getDeclaredMethods())
-            .filter(method -> method.getAnnotation(MyTransactional.class) != null)
-            .findFirst()
-            .map(m -> {
-              MyTransactionalHandler handler = new MyTransactionalHandler(instance);
-              return (T) Proxy.newProxyInstance(
-                      instance.getClass().getClassLoader(),
-                      new Class[]{MemberServiceV2.class},
-                      handler
-              );
-            })
-            .orElse(instance);
+    return registry.getBean(classType);
   }
 
-  private static <T> T createServiceInstance(Class<T> classType) {
-    try {
-      return classType.getConstructor(MemberRepositoryV1.class).newInstance(memberRepository);
-    } catch (InvocationTargetException | InstantiationException | IllegalAccessException | NoSuchMethodException e) {
-      throw new RuntimeException(e);
+  private static BeanRegistry createRegistry() {
+    // 트랜잭션이 실제로 SQL을 실행할 때까지 풀에서 커넥션을 빌리지 않고, 빌린 뒤에는 바뀌지 않는 세션 상태 설정을 생략한다.
+    SessionStateDataSource sessionDataSource = new SessionStateDataSource(DBConnectionUtil.getDataSource());
+    SessionStateDataSource readSessionDataSource = new SessionStateDataSource(DBConnectionUtil.getReadDataSource());
+    DataSource dataSource = new LazyConnectionDataSource(sessionDataSource);
+    DataSource readDataSource = new LazyConnectionDataSource(readSessionDataSource);
+    MetricsRegistry.global().registerGauge("connection_state_calls_elided_total",
+            () -> sessionDataSource.getElidedCalls() + readSessionDataSource.getElidedCalls());
+    MetricsRegistry.global().registerGauge("connection_state_calls_applied_total",
+            () -> sessionDataSource.getAppliedCalls() + readSessionDataSource.getAppliedCalls());
+
+    BeanRegistry registry = new BeanRegistry();
+    registry.registerSingleton(DataSource.class, dataSource);
+    registry.registerSingleton(StatementCache.class, new StatementCache());
+    registry.registerSingleton(MemberCache.class, new MemberCache(10_000, Duration.ofSeconds(5)));
+    // 5초 넘게 잡고 있는 커넥션을 보고하고, 획득 스택은 100번에 한 번만 수집한다.
+    ConnectionLeakDetector leakDetector = new ConnectionLeakDetector(Duration.ofSeconds(5), 100);
+    registry.registerSingleton(ConnectionLeakDetector.class, leakDetector);
+    MetricsRegistry.global().registerGauge("connection_leases_active", leakDetector::getActiveCount);
+    MyTransactionManager transactionManager = new MyTransactionManager(dataSource, readDataSource, leakDetector);
+    registry.registerSingleton(MyTransactionManager.class, transactionManager);
+    registry.registerAdvisor(new TransactionAdvisor(transactionManager));
+
+    // 컴파일 시점에 생성된 인덱스가 있으면 스캔/리플렉션 없이 등록하고, 없으면 생성자를 분석해 등록한다.
+    Optional<BeanIndex> index = ServiceLoader.load(BeanIndex.class, ContainerService.class.getClassLoader()).findFirst();
+    List<Class<?>> beanClasses;
+    if (index.isPresent()) {
+      index.get().registerBeans(registry);
+      beanClasses = index.get().getBeanClasses();
+    } else {
+      beanClasses = List.of(
+              MemberRepositoryV1.class,
+              MemberServiceV1.class,
+              MemberServiceV2Impl.class,
+              MemberServiceV3.class
+      );
+      beanClasses.forEach(registry::registerBean);
     }
+    registry.preInstantiate(beanClasses);
+    return registry;
   }
 }
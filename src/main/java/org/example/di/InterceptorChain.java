@@ -0,0 +1,126 @@
+package org.example.di;
+
+import org.example.transactional.Invocation;
+import org.example.transactional.TargetInvoker;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+// 메서드 하나에 적용되는 인터셉터를 프록시 생성 시점에 배열로 고정해 둔 것.
+// 적용되는 인터셉터가 없으면 체인을 만들지 않으므로(null) 프록시는 타겟을 바로 호출한다.
+public class InterceptorChain {
+
+  private static final TargetInvoker INVOCATION = (context, proxy, args) -> ((Invocation) context).proceed();
+
+  private final Method method;
+  private final MethodInterceptor[] interceptors;
+
+  private InterceptorChain(Method method, MethodInterceptor[] interceptors) {
+    this.method = method;
+    this.interceptors = interceptors;
+  }
+
+  public static InterceptorChain build(Method method, Class<?> targetClass, List<Advisor> advisors) {
+    List<MethodInterceptor> interceptors = new ArrayList<>();
+    for (Advisor advisor : advisors) {
+      MethodInterceptor interceptor = advisor.getInterceptor(method, targetClass);
+      if (interceptor != null) {
+        interceptors.add(interceptor);
+      }
+    }
+    return interceptors.isEmpty() ? null : new InterceptorChain(method, interceptors.toArray(MethodInterceptor[]::new));
+  }
+
+  // 프록시가 필요한지 판단한다. public 메서드 중 하나라도 인터셉터가 적용되면 true
+  public static boolean hasAdvice(Class<?> targetClass, List<Advisor> advisors) {
+    for (Method method : targetClass.getMethods()) {
+      if (method.getDeclaringClass() != Object.class && !Modifier.isStatic(method.getModifiers())
+              && build(method, targetClass, advisors) != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // 생성된 프록시가 추가 인터셉터 체인을 만들 때 사용한다. 인터셉터가 없으면 메서드도 찾지 않는다.
+  public static InterceptorChain build(Class<?> targetClass, String name, Class<?>[] parameterTypes, List<Advisor> advisors) {
+    if (advisors.isEmpty()) {
+      return null;
+    }
+
+    try {
+      return build(targetClass.getMethod(name, parameterTypes), targetClass, advisors);
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public Method getMethod() {
+    return method;
+  }
+
+  public int size() {
+    return interceptors.length;
+  }
+
+  public Object invoke(Object proxy, Object[] args, Invocation target) throws Throwable {
+    return invoke(proxy, args, INVOCATION, target);
+  }
+
+  // 타겟을 부르는 방법(invoker)은 프록시마다 상수로 두고 호출마다 달라지는 값만 context로 넘겨서, 체인 호출 객체 외에는 할당하지 않는다.
+  public Object invoke(Object proxy, Object[] args, TargetInvoker invoker, Object context) throws Throwable {
+    return new ChainInvocation(this, proxy, args, invoker, context).proceed();
+  }
+
+  // 호출마다 하나만 만들고 커서로 다음 인터셉터를 가리킨다.
+  // 안쪽 호출이 끝나면 커서를 되돌려서, 같은 인터셉터가 proceed()를 다시 호출해도(재시도) 안쪽 체인 전체를 다시 탄다.
+  private static class ChainInvocation implements MethodInvocation {
+
+    private final InterceptorChain chain;
+    private final Object proxy;
+    private final Object[] args;
+    private final TargetInvoker invoker;
+    private final Object context;
+    private int index;
+
+    private ChainInvocation(InterceptorChain chain, Object proxy, Object[] args, TargetInvoker invoker, Object context) {
+      this.chain = chain;
+      this.proxy = proxy;
+      this.args = args;
+      this.invoker = invoker;
+      this.context = context;
+    }
+
+    @Override
+    public Object proceed() throws Throwable {
+      int current = index;
+      if (current == chain.interceptors.length) {
+        return invoker.invoke(context, proxy, args);
+      }
+
+      index = current + 1;
+      try {
+        return chain.interceptors[current].invoke(this);
+      } finally {
+        index = current;
+      }
+    }
+
+    @Override
+    public Method getMethod() {
+      return chain.method;
+    }
+
+    @Override
+    public Object[] getArguments() {
+      return args;
+    }
+
+    @Override
+    public Object getThis() {
+      return proxy;
+    }
+  }
+}
@@ -0,0 +1,7 @@
+package org.example.di;
+
+// 체인의 한 단계. invocation.proceed()로 다음 인터셉터나 타겟 메서드를 호출한다. 재시도를 위해 여러 번 호출해도 된다.
+public interface MethodInterceptor {
+
+  Object invoke(MethodInvocation invocation) throws Throwable;
+}
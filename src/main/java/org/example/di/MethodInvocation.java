@@ -0,0 +1,15 @@
+package org.example.di;
+
+import org.example.transactional.Invocation;
+
+import java.lang.reflect.Method;
+
+public interface MethodInvocation extends Invocation {
+
+  Method getMethod();
+
+  // 호출 인자. 바꿔도 타겟 호출에는 반영되지 않는다.
+  Object[] getArguments();
+
+  Object getThis();
+}
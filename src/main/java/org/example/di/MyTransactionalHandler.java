@@ -1,43 +1,85 @@
 package org.example.di;
 
+import org.example.transactional.MyTransactionManager;
+import org.example.transactional.TargetInvoker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
-import java.sql.Connection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class MyTransactionalHandler implements InvocationHandler {
 
-  private final Object target;
+  private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object[].class);
+  private static final TargetInvoker HANDLE_INVOKER =
+          (context, proxy, args) -> (Object) ((MethodHandle) context).invokeExact(args);
+
+  private final Map<Method, MethodInvoker> invokers;
 
-  public MyTransactionalHandler(Object target) {
-    this.target = target;
+  public MyTransactionalHandler(Object target, Class<?>[] interfaces, MyTransactionManager transactionManager) {
+    this(target, interfaces, List.of(new TransactionAdvisor(transactionManager)));
+  }
+
+  public MyTransactionalHandler(Object target, Class<?>[] interfaces, List<Advisor> advisors) {
+    this.invokers = createInvokers(target, interfaces, advisors);
   }
 
   @Override
   public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-    Connection con = (Connection) args[3];
+    MethodInvoker invoker = invokers.get(method);
 
-    try {
-      con.setAutoCommit(false);
-
-      Object result = method.invoke(target, args);
-      con.commit();
-      return result;
-    } catch (Exception e) {
-      con.rollback();
-      Throwable cause = e.getCause();
-      throw new IllegalStateException(cause.getMessage());
-    } finally {
-      release(con);
+    if (invoker.chain == null) { // 적용되는 인터셉터가 없는 메서드는 바로 타겟을 호출한다.
+      return invoker.handle.invokeExact(args);
     }
+
+    return invoker.chain.invoke(proxy, args, HANDLE_INVOKER, invoker.handle);
   }
 
-  private void release(Connection con) {
-    if (con != null) {
-      try {
-        con.setAutoCommit(true); // 커넥션 풀 고려
-        con.close();
-      } catch (Exception e) {
+  // 프록시 생성 시점에 메서드마다 인터셉터 체인과 타겟에 바인딩된 MethodHandle을 한 번만 만든다.
+  private static Map<Method, MethodInvoker> createInvokers(Object target, Class<?>[] interfaces, List<Advisor> advisors) {
+    Map<Method, MethodInvoker> invokers = new HashMap<>();
+
+    try {
+      for (Method method : new Method[]{
+              Object.class.getMethod("equals", Object.class),
+              Object.class.getMethod("hashCode"),
+              Object.class.getMethod("toString")}) {
+        invokers.put(method, new MethodInvoker(bind(target, method), null));
       }
+
+      for (Class<?> ifc : interfaces) {
+        for (Method method : ifc.getMethods()) {
+          InterceptorChain chain = InterceptorChain.build(method, target.getClass(), advisors);
+          invokers.put(method, new MethodInvoker(bind(target, method), chain));
+        }
+      }
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+    return Collections.unmodifiableMap(invokers);
+  }
+
+  private static MethodHandle bind(Object target, Method method) throws IllegalAccessException {
+    method.setAccessible(true);
+    return MethodHandles.lookup().unreflect(method)
+            .bindTo(target)
+            .asSpreader(Object[].class, method.getParameterCount())
+            .asType(INVOKER_TYPE);
+  }
+
+  private static class MethodInvoker {
+
+    private final MethodHandle handle;
+    private final InterceptorChain chain;
+
+    private MethodInvoker(MethodHandle handle, InterceptorChain chain) {
+      this.handle = handle;
+      this.chain = chain;
     }
   }
 }
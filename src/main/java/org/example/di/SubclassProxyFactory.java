@@ -0,0 +1,124 @@
+package org.example.di;
+
+import org.example.transactional.MyTransactionManager;
+import org.example.transactional.TargetInvoker;
+import org.springframework.cglib.proxy.Callback;
+import org.springframework.cglib.proxy.CallbackFilter;
+import org.springframework.cglib.proxy.Enhancer;
+import org.springframework.cglib.proxy.MethodProxy;
+import org.springframework.cglib.proxy.NoOp;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class SubclassProxyFactory {
+
+  private static final int PASS_THROUGH = 0;
+  private static final int ADVISED = 1;
+  private static final TargetInvoker SUPER_INVOKER =
+          (context, proxy, args) -> ((MethodProxy) context).invokeSuper(proxy, args);
+
+  // 타입과 인터셉터가 적용되는 메서드 집합마다 서브클래스를 한 번만 생성한다.
+  private static final ClassValue<Map<Set<Method>, Class<?>>> proxyClassCache = new ClassValue<>() {
+    @Override
+    protected Map<Set<Method>, Class<?>> computeValue(Class<?> type) {
+      return new ConcurrentHashMap<>();
+    }
+  };
+
+  private SubclassProxyFactory() {
+  }
+
+  public static <T> T createProxy(Class<T> type, Class<?>[] argTypes, Object[] args, MyTransactionManager transactionManager) {
+    return createProxy(type, argTypes, args, List.of(new TransactionAdvisor(transactionManager)));
+  }
+
+  public static <T> T createProxy(Class<T> type, Class<?>[] argTypes, Object[] args, List<Advisor> advisors) {
+    Map<Method, InterceptorChain> chains = createChains(type, advisors);
+    Class<?> proxyClass = proxyClassCache.get(type).computeIfAbsent(Set.copyOf(chains.keySet()), methods -> createProxyClass(type, methods));
+    Callback[] callbacks = {NoOp.INSTANCE, new ChainMethodInterceptor(chains)};
+
+    // 생성자 호출 동안만 콜백을 등록해서 인스턴스마다 다른 인터셉터 체인을 쓸 수 있게 한다.
+    Enhancer.registerCallbacks(proxyClass, callbacks);
+    try {
+      Constructor<?> constructor = proxyClass.getConstructor(argTypes);
+      return type.cast(constructor.newInstance(args));
+    } catch (InvocationTargetException | InstantiationException | IllegalAccessException | NoSuchMethodException e) {
+      throw new RuntimeException(e);
+    } finally {
+      Enhancer.registerCallbacks(proxyClass, null);
+    }
+  }
+
+  private static Map<Method, InterceptorChain> createChains(Class<?> type, List<Advisor> advisors) {
+    Map<Method, InterceptorChain> chains = new HashMap<>();
+    for (Method method : type.getMethods()) {
+      int modifiers = method.getModifiers();
+      if (method.getDeclaringClass() == Object.class || Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)) {
+        continue;
+      }
+      InterceptorChain chain = InterceptorChain.build(method, type, advisors);
+      if (chain != null) {
+        chains.put(method, chain);
+      }
+    }
+    return chains;
+  }
+
+  private static Class<?> createProxyClass(Class<?> type, Set<Method> advisedMethods) {
+    Enhancer enhancer = new Enhancer();
+    enhancer.setSuperclass(type);
+    enhancer.setUseCache(false);
+    enhancer.setCallbackTypes(new Class[]{NoOp.class, org.springframework.cglib.proxy.MethodInterceptor.class});
+    // 인터셉터가 없는 메서드는 NoOp으로 생성되어 체인을 거치지 않고 super를 직접 호출한다.
+    enhancer.setCallbackFilter(new AdvisedCallbackFilter(advisedMethods));
+    return enhancer.createClass();
+  }
+
+  private static class AdvisedCallbackFilter implements CallbackFilter {
+
+    private final Set<Method> advisedMethods;
+
+    private AdvisedCallbackFilter(Set<Method> advisedMethods) {
+      this.advisedMethods = advisedMethods;
+    }
+
+    @Override
+    public int accept(Method method) {
+      return advisedMethods.contains(method) ? ADVISED : PASS_THROUGH;
+    }
+
+    // Enhancer가 생성 클래스 이름을 정할 때 필터를 비교하므로, 메서드 집합이 다르면 다른 필터로 본다.
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof AdvisedCallbackFilter && advisedMethods.equals(((AdvisedCallbackFilter) o).advisedMethods);
+    }
+
+    @Override
+    public int hashCode() {
+      return advisedMethods.hashCode();
+    }
+  }
+
+  private static class ChainMethodInterceptor implements org.springframework.cglib.proxy.MethodInterceptor {
+
+    private final Map<Method, InterceptorChain> chains;
+
+    private ChainMethodInterceptor(Map<Method, InterceptorChain> chains) {
+      this.chains = chains;
+    }
+
+    @Override
+    public Object intercept(Object obj, Method method, Object[] args, MethodProxy methodProxy) throws Throwable {
+      // 리플렉션 없이 FastClass 인덱스로 super를 직접 호출
+      return chains.get(method).invoke(obj, args, SUPER_INVOKER, methodProxy);
+    }
+  }
+}
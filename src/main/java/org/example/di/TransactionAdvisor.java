@@ -0,0 +1,35 @@
+package org.example.di;
+
+import org.example.transactional.MyTransactionManager;
+import org.example.transactional.TransactionAttribute;
+import org.example.transactional.TransactionAttributeSource;
+import org.example.transactional.TransactionInterceptor;
+
+import java.lang.reflect.Method;
+
+// @MyTransactional 메서드에 트랜잭션 인터셉터를 적용한다. 속성은 프록시 생성 시점에 한 번만 찾는다.
+public class TransactionAdvisor implements Advisor {
+
+  private final TransactionInterceptor transactionInterceptor;
+
+  public TransactionAdvisor(MyTransactionManager transactionManager) {
+    this(new TransactionInterceptor(transactionManager));
+  }
+
+  public TransactionAdvisor(TransactionInterceptor transactionInterceptor) {
+    this.transactionInterceptor = transactionInterceptor;
+  }
+
+  public TransactionInterceptor getTransactionInterceptor() {
+    return transactionInterceptor;
+  }
+
+  @Override
+  public MethodInterceptor getInterceptor(Method method, Class<?> targetClass) {
+    TransactionAttribute attribute = TransactionAttributeSource.getAttribute(method, targetClass);
+    if (attribute == null) {
+      return null;
+    }
+    return invocation -> transactionInterceptor.invoke(attribute, invocation);
+  }
+}
@@ -0,0 +1,100 @@
+package org.example.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+// 저널 파일의 이체 한 건: [length][seq][money][fromId][toId][crc32c]
+class JournalEntry {
+
+  static final int MAX_ID_BYTES = 64;
+  static final int MAX_BYTES = 4 + 8 + 4 + 2 + MAX_ID_BYTES + 2 + MAX_ID_BYTES + 4;
+
+  private final long seq;
+  private final String fromId;
+  private final String toId;
+  private final int money;
+
+  JournalEntry(long seq, String fromId, String toId, int money) {
+    this.seq = seq;
+    this.fromId = fromId;
+    this.toId = toId;
+    this.money = money;
+  }
+
+  long getSeq() {
+    return seq;
+  }
+
+  String getFromId() {
+    return fromId;
+  }
+
+  String getToId() {
+    return toId;
+  }
+
+  int getMoney() {
+    return money;
+  }
+
+  static void checkId(String memberId) {
+    if (memberId.getBytes(StandardCharsets.UTF_8).length > MAX_ID_BYTES) {
+      throw new IllegalArgumentException("memberId too long: " + memberId);
+    }
+  }
+
+  void writeTo(ByteBuffer buffer) {
+    byte[] from = fromId.getBytes(StandardCharsets.UTF_8);
+    byte[] to = toId.getBytes(StandardCharsets.UTF_8);
+    int length = 8 + 4 + 2 + from.length + 2 + to.length;
+
+    buffer.putInt(length);
+    int payloadStart = buffer.position();
+    buffer.putLong(seq);
+    buffer.putInt(money);
+    buffer.putShort((short) from.length);
+    buffer.put(from);
+    buffer.putShort((short) to.length);
+    buffer.put(to);
+
+    CRC32C crc = new CRC32C();
+    crc.update(buffer.duplicate().position(payloadStart).limit(buffer.position()));
+    buffer.putInt((int) crc.getValue());
+  }
+
+  // 온전한 엔트리가 아니면(쓰다 만 꼬리, 체크섬 불일치) null을 반환하고 buffer 위치를 옮기지 않는다.
+  static JournalEntry readFrom(ByteBuffer buffer) {
+    int start = buffer.position();
+    if (buffer.remaining() < 4) {
+      return null;
+    }
+
+    int length = buffer.getInt();
+    if (length <= 0 || length > MAX_BYTES || buffer.remaining() < length + 4) {
+      buffer.position(start);
+      return null;
+    }
+
+    ByteBuffer payload = buffer.slice(buffer.position(), length);
+    buffer.position(buffer.position() + length);
+    CRC32C crc = new CRC32C();
+    crc.update(payload.duplicate());
+    if ((int) crc.getValue() != buffer.getInt()) {
+      buffer.position(start);
+      return null;
+    }
+
+    long seq = payload.getLong();
+    int money = payload.getInt();
+    String fromId = readString(payload);
+    String toId = readString(payload);
+    return new JournalEntry(seq, fromId, toId, money);
+  }
+
+  private static String readString(ByteBuffer payload) {
+    byte[] bytes = new byte[payload.getShort()];
+    payload.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
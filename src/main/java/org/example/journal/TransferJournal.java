@@ -0,0 +1,453 @@
+package org.example.journal;
+
+import org.example.member.MemberRepositoryV1;
+import org.example.transactional.MyTransactionManager;
+import org.example.transactional.TransactionStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// 이체를 로컬 디스크의 추가 전용 저널에 먼저 기록하고, fsync가 끝나면 바로 응답한다.
+// 여러 호출을 한 번의 fsync로 묶어서 확정하고(group commit), 백그라운드 applier가 모아서 DB에 반영한다.
+// 잔액 검증은 DB에 반영할 때 하므로, 잔액 부족이나 없는 회원으로 거절된 이체는 건너뛰고 로그와 카운터로 남긴다.
+public class TransferJournal implements AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(TransferJournal.class);
+
+  private static final long SEGMENT_BYTES = 64L * 1024 * 1024;
+  private static final int WRITE_BATCH = 1024;
+  private static final int APPLY_BATCH = 1000;
+  private static final long APPLY_RETRY_MILLIS = 1000;
+
+  private final String name;
+  private final Path directory;
+  private final MemberRepositoryV1 memberRepository;
+  private final MyTransactionManager transactionManager;
+
+  private final BlockingQueue<PendingTransfer> writeQueue = new LinkedBlockingQueue<>();
+  private final BlockingQueue<JournalEntry> applyQueue = new LinkedBlockingQueue<>();
+  // 세그먼트 첫 seq -> 파일. 다음 세그먼트의 첫 seq 전까지가 이 세그먼트의 범위다.
+  private final NavigableMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+  private final LongAdder rejected = new LongAdder();
+  // 제출은 읽기 락, 종료는 쓰기 락을 잡아서 closed 검사와 큐 추가 사이에 종료가 끼어들지 못하게 한다.
+  private final ReadWriteLock submitLock = new ReentrantReadWriteLock();
+
+  private final Thread writer;
+  private final Thread applier;
+
+  private FileChannel channel; // writer 스레드만 사용한다.
+  private long nextSeq;
+  private volatile long durableSeq;
+  private volatile long appliedSeq;
+  private volatile boolean closed;
+
+  public TransferJournal(String name, Path directory, MemberRepositoryV1 memberRepository,
+                         MyTransactionManager transactionManager) throws IOException, SQLException {
+    this.name = name;
+    this.directory = directory;
+    this.memberRepository = memberRepository;
+    this.transactionManager = transactionManager;
+
+    Files.createDirectories(directory);
+    createCheckpointTable();
+    appliedSeq = loadAppliedSeq();
+    recover();
+    openSegment(nextSeq);
+
+    writer = new Thread(this::writeLoop, "transfer-journal-writer-" + name);
+    applier = new Thread(this::applyLoop, "transfer-journal-applier-" + name);
+    writer.start();
+    applier.start();
+  }
+
+  // 저널에 fsync된 뒤 완료된다. DB 반영은 그 이후에 비동기로 일어난다.
+  public CompletableFuture<Void> accountTransferAsync(String fromId, String toId, int money) {
+    JournalEntry.checkId(fromId);
+    JournalEntry.checkId(toId);
+    Lock lock = submitLock.readLock();
+    if (closed || !lock.tryLock()) { // 쓰기 락은 종료 중에만 잡히므로 기다리지 않는다.
+      throw new IllegalStateException("journal is closed");
+    }
+    try {
+      if (closed) {
+        throw new IllegalStateException("journal is closed");
+      }
+      PendingTransfer transfer = new PendingTransfer(fromId, toId, money);
+      writeQueue.add(transfer);
+      return transfer.future;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void accountTransfer(String fromId, String toId, int money) {
+    try {
+      accountTransferAsync(fromId, toId, money).join();
+    } catch (CompletionException e) {
+      throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+    }
+  }
+
+  public long getDurableSeq() {
+    return durableSeq;
+  }
+
+  public long getAppliedSeq() {
+    return appliedSeq;
+  }
+
+  public long getRejectedCount() {
+    return rejected.sum();
+  }
+
+  // 새 이체를 막고, 기록된 이체를 모두 DB에 반영할 때까지 최대 timeout 동안 기다린다.
+  // 반영하지 못한 이체는 저널에 남아 다음 시작 때 복구된다.
+  public void close(long timeout, TimeUnit unit) throws InterruptedException {
+    closed = true;
+    Lock lock = submitLock.writeLock();
+    lock.lock(); // 검사를 통과하고 아직 큐에 넣지 못한 호출이 끝나기를 기다린다. 이후로는 아무도 큐에 넣지 않는다.
+    lock.unlock();
+
+    writer.join();
+    for (PendingTransfer transfer : drain(writeQueue)) { // writer가 멈춘 뒤 남은 이체
+      transfer.future.completeExceptionally(new IllegalStateException("journal is closed"));
+    }
+
+    applier.join(unit.toMillis(timeout));
+    if (applier.isAlive()) {
+      applier.interrupt();
+      applier.join();
+    }
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    close(30, TimeUnit.SECONDS);
+  }
+
+  private void writeLoop() {
+    List<PendingTransfer> batch = new ArrayList<>(WRITE_BATCH);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BATCH * JournalEntry.MAX_BYTES);
+
+    try {
+      while (!closed || !writeQueue.isEmpty()) {
+        PendingTransfer first = writeQueue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        writeQueue.drainTo(batch, WRITE_BATCH - 1);
+
+        write(batch, buffer);
+        batch.clear();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      closeChannel();
+    }
+  }
+
+  private void write(List<PendingTransfer> batch, ByteBuffer buffer) {
+    long firstSeq = nextSeq;
+    long start = -1;
+    List<JournalEntry> entries = new ArrayList<>(batch.size());
+
+    try {
+      start = channel.position();
+      buffer.clear();
+      for (PendingTransfer transfer : batch) {
+        JournalEntry entry = new JournalEntry(nextSeq++, transfer.fromId, transfer.toId, transfer.money);
+        entry.writeTo(buffer);
+        entries.add(entry);
+      }
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(false); // 모아둔 이체를 fsync 한 번으로 확정한다.
+    } catch (IOException e) {
+      logger.error("journal write error", e);
+      nextSeq = firstSeq;
+      truncateQuietly(start);
+      batch.forEach(transfer -> transfer.future.completeExceptionally(e));
+      return;
+    }
+
+    durableSeq = nextSeq - 1;
+    applyQueue.addAll(entries);
+    batch.forEach(transfer -> transfer.future.complete(null));
+
+    try {
+      if (channel.size() >= SEGMENT_BYTES) {
+        closeChannel();
+        openSegment(nextSeq);
+      }
+    } catch (IOException e) {
+      logger.error("journal segment roll error", e);
+    }
+  }
+
+  // 쓰다 실패한 부분을 잘라내야 이후 엔트리가 복구 시 버려지지 않는다. 자를 수 없으면 저널을 멈춘다.
+  private void truncateQuietly(long position) {
+    try {
+      if (position >= 0) {
+        channel.truncate(position);
+        channel.position(position);
+      }
+    } catch (IOException e) {
+      logger.error("journal truncate error, journal is closed", e);
+      closed = true;
+    }
+  }
+
+  private void applyLoop() {
+    List<JournalEntry> batch = new ArrayList<>(APPLY_BATCH);
+
+    try {
+      while (true) {
+        if (batch.isEmpty()) {
+          JournalEntry first = applyQueue.poll(100, TimeUnit.MILLISECONDS);
+          if (first == null) {
+            if (closed && !writer.isAlive() && applyQueue.isEmpty()) {
+              return;
+            }
+            continue;
+          }
+          batch.add(first);
+          applyQueue.drainTo(batch, APPLY_BATCH - 1);
+        }
+
+        try {
+          apply(batch);
+          batch.clear();
+          checkpoint();
+        } catch (SQLException | RuntimeException e) {
+          logger.error("journal apply error, retry in {}ms", APPLY_RETRY_MILLIS, e); // 같은 배치를 다시 시도한다.
+          Thread.sleep(APPLY_RETRY_MILLIS);
+          skipApplied(batch);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // 배치를 한 트랜잭션으로 반영하고, 반영한 seq를 같은 트랜잭션에서 기록해서 중복 반영을 막는다.
+  // 거절된 이체는 세이브포인트로 되돌려 나머지 이체에 영향을 주지 않는다.
+  private void apply(List<JournalEntry> batch) throws SQLException {
+    TransactionStatus status = transactionManager.getTransaction();
+    try {
+      Connection con = status.getConnection();
+      for (JournalEntry entry : batch) {
+        Savepoint savepoint = con.setSavepoint();
+        try {
+          memberRepository.transfer(con, entry.getFromId(), entry.getToId(), entry.getMoney());
+          con.releaseSavepoint(savepoint);
+        } catch (IllegalStateException | NoSuchElementException e) {
+          con.rollback(savepoint);
+          rejected.increment();
+          logger.warn("journal entry rejected seq={} {} -> {} {}: {}",
+                  entry.getSeq(), entry.getFromId(), entry.getToId(), entry.getMoney(), e.getMessage());
+        }
+      }
+      saveAppliedSeq(con, batch.get(batch.size() - 1).getSeq());
+    } catch (SQLException | RuntimeException e) {
+      transactionManager.rollback(status);
+      throw e;
+    }
+    transactionManager.commit(status);
+    appliedSeq = batch.get(batch.size() - 1).getSeq();
+  }
+
+  // 커밋 도중 실패하면 실제로 커밋되었는지 알 수 없으므로, DB에 기록된 seq를 보고 이미 반영된 엔트리를 뺀다.
+  private void skipApplied(List<JournalEntry> batch) {
+    try {
+      long committedSeq = loadAppliedSeq();
+      batch.removeIf(entry -> entry.getSeq() <= committedSeq);
+      if (committedSeq > appliedSeq) {
+        appliedSeq = committedSeq;
+      }
+    } catch (SQLException e) {
+      logger.error("journal checkpoint read error", e);
+    }
+  }
+
+  // 모든 엔트리가 반영된 세그먼트를 지운다. 쓰고 있는 마지막 세그먼트는 남긴다.
+  private void checkpoint() {
+    Iterator<Map.Entry<Long, Path>> iterator = segments.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Long, Path> segment = iterator.next();
+      Long nextFirstSeq = segments.higherKey(segment.getKey());
+      if (nextFirstSeq == null || nextFirstSeq - 1 > appliedSeq) {
+        return;
+      }
+
+      try {
+        Files.deleteIfExists(segment.getValue());
+        iterator.remove();
+      } catch (IOException e) {
+        logger.error("journal segment delete error {}", segment.getValue(), e);
+        return;
+      }
+    }
+  }
+
+  // 시작할 때 세그먼트를 순서대로 읽어 아직 반영되지 않은 엔트리를 DB에 반영한다.
+  private void recover() throws IOException, SQLException {
+    long lastSeq = appliedSeq;
+
+    try (Stream<Path> files = Files.list(directory)) {
+      files.filter(file -> file.getFileName().toString().matches("journal-\\d{20}\\.log"))
+              .forEach(file -> segments.put(Long.parseLong(file.getFileName().toString().substring(8, 28)), file));
+    }
+
+    for (Path segment : segments.values()) {
+      List<JournalEntry> entries = readSegment(segment);
+      List<JournalEntry> batch = new ArrayList<>(APPLY_BATCH);
+      for (JournalEntry entry : entries) {
+        lastSeq = Math.max(lastSeq, entry.getSeq());
+        if (entry.getSeq() <= appliedSeq) {
+          continue;
+        }
+        batch.add(entry);
+        if (batch.size() == APPLY_BATCH) {
+          apply(batch);
+          batch.clear();
+        }
+      }
+      if (!batch.isEmpty()) {
+        apply(batch);
+      }
+    }
+
+    if (lastSeq > appliedSeq) {
+      logger.info("journal {} recovered up to seq={}", name, lastSeq);
+    }
+    nextSeq = lastSeq + 1;
+    durableSeq = lastSeq;
+    checkpoint();
+  }
+
+  // 파일을 메모리에 매핑해서 읽는다. 마지막에 쓰다 만 엔트리가 있으면 잘라낸다.
+  private List<JournalEntry> readSegment(Path segment) throws IOException {
+    List<JournalEntry> entries = new ArrayList<>();
+
+    try (FileChannel file = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      MappedByteBuffer buffer = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+      JournalEntry entry;
+      while ((entry = JournalEntry.readFrom(buffer)) != null) {
+        entries.add(entry);
+      }
+
+      if (buffer.hasRemaining()) {
+        logger.warn("journal {} truncated at {} ({} bytes discarded)", segment, buffer.position(), buffer.remaining());
+        file.truncate(buffer.position());
+        file.force(true);
+      }
+    }
+    return entries;
+  }
+
+  private void openSegment(long firstSeq) throws IOException {
+    Path segment = directory.resolve(String.format("journal-%020d.log", firstSeq));
+    channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    channel.position(channel.size());
+    segments.put(firstSeq, segment);
+
+    try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+      dir.force(true); // 새 파일의 디렉토리 엔트리도 확정한다.
+    } catch (IOException e) {
+      // 디렉토리 fsync를 지원하지 않는 파일 시스템
+    }
+  }
+
+  private void closeChannel() {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      logger.error("journal close error", e);
+    }
+  }
+
+  private void createCheckpointTable() throws SQLException {
+    String sql = "create table if not exists transfer_journal_checkpoint " +
+            "(journal_name varchar(50) primary key, applied_seq bigint not null)";
+
+    try (Connection con = transactionManager.getDataSource().getConnection(); Statement stmt = con.createStatement()) {
+      stmt.execute(sql);
+    }
+  }
+
+  private long loadAppliedSeq() throws SQLException {
+    String sql = "select applied_seq from transfer_journal_checkpoint where journal_name = ?";
+
+    try (Connection con = transactionManager.getDataSource().getConnection();
+         PreparedStatement pstmt = con.prepareStatement(sql)) {
+      pstmt.setString(1, name);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        return rs.next() ? rs.getLong(1) : 0;
+      }
+    }
+  }
+
+  private void saveAppliedSeq(Connection con, long seq) throws SQLException {
+    String sql = "merge into transfer_journal_checkpoint(journal_name, applied_seq) key(journal_name) values(?, ?)";
+
+    try (PreparedStatement pstmt = con.prepareStatement(sql)) {
+      pstmt.setString(1, name);
+      pstmt.setLong(2, seq);
+      pstmt.executeUpdate();
+    }
+  }
+
+  private static <T> List<T> drain(BlockingQueue<T> queue) {
+    List<T> items = new ArrayList<>();
+    queue.drainTo(items);
+    return items;
+  }
+
+  private static class PendingTransfer {
+
+    private final String fromId;
+    private final String toId;
+    private final int money;
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    private PendingTransfer(String fromId, String toId, int money) {
+      this.fromId = fromId;
+      this.toId = toId;
+      this.money = money;
+    }
+  }
+}
@@ -0,0 +1,231 @@
+package org.example.ledger;
+
+import org.example.member.Member;
+import org.example.member.MemberRepositoryV1;
+import org.example.transactional.MyTransactionManager;
+import org.example.transactional.TransactionStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// 이체가 몰리는 계좌의 잔액을 메모리에서 처리하고, 증감분만 주기적으로 DB에 모아서 반영한다.
+// 지정한 계좌는 반드시 이 원장을 통해서만 변경해야 한다.
+public class HotAccountLedger implements AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(HotAccountLedger.class);
+
+  private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+  private final MemberRepositoryV1 memberRepository;
+  private final MyTransactionManager transactionManager;
+  private final Map<String, AccountCell> cells;
+  private final ScheduledExecutorService flusher;
+  // 이체는 읽기 락을 잡고 실행하고, 종료는 쓰기 락으로 진행 중인 이체가 모두 끝나기를 기다린다.
+  private final ReadWriteLock drainLock = new ReentrantReadWriteLock();
+
+  private volatile boolean closed;
+
+  public HotAccountLedger(MemberRepositoryV1 memberRepository, MyTransactionManager transactionManager,
+                          Collection<String> hotAccounts, long flushIntervalMillis) throws SQLException {
+    this.memberRepository = memberRepository;
+    this.transactionManager = transactionManager;
+    this.cells = loadCells(hotAccounts);
+    this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "hot-account-ledger-flusher");
+      thread.setDaemon(true);
+      return thread;
+    });
+    flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  public boolean isHot(String memberId) {
+    return cells.containsKey(memberId);
+  }
+
+  public long getBalance(String memberId) throws SQLException {
+    AccountCell cell = cells.get(memberId);
+    if (cell == null) {
+      return memberRepository.findById(memberId).getMoney();
+    }
+    return cell.balance.get();
+  }
+
+  public void transfer(String fromId, String toId, int money) throws SQLException {
+    Lock lock = drainLock.readLock();
+    if (closed || !lock.tryLock()) { // 쓰기 락은 종료 중에만 잡히므로 기다리지 않는다.
+      throw new IllegalStateException("ledger is closed");
+    }
+    try {
+      if (closed) {
+        throw new IllegalStateException("ledger is closed");
+      }
+      doTransfer(fromId, toId, money);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void doTransfer(String fromId, String toId, int money) throws SQLException {
+    AccountCell from = cells.get(fromId);
+    AccountCell to = cells.get(toId);
+
+    if (from == null && to == null) { // 둘 다 일반 계좌면 기존처럼 DB에서 처리한다.
+      inTransaction(() -> memberRepository.transfer(fromId, toId, money));
+      return;
+    }
+
+    if (from != null) {
+      from.withdraw(money);
+      try {
+        if (to != null) {
+          to.deposit(money);
+        } else {
+          inTransaction(() -> memberRepository.deposit(toId, money));
+        }
+      } catch (SQLException | RuntimeException e) {
+        from.deposit(money); // 입금에 실패하면 출금을 되돌린다.
+        throw e;
+      }
+      return;
+    }
+
+    // 출금 계좌만 DB에 있으면 DB 출금이 커밋된 다음에 메모리에 입금한다.
+    inTransaction(() -> memberRepository.withdraw(fromId, money));
+    to.deposit(money);
+  }
+
+  // 쌓인 증감분을 한 트랜잭션의 배치 UPDATE로 반영한다. 실패하면 증감분을 되돌려 다음 주기에 다시 시도한다.
+  public synchronized void flush() throws SQLException {
+    Map<String, Long> deltas = new TreeMap<>();
+    for (AccountCell cell : cells.values()) {
+      long delta = cell.pendingDelta.sumThenReset();
+      if (delta != 0) {
+        deltas.put(cell.memberId, delta);
+      }
+    }
+    if (deltas.isEmpty()) {
+      return;
+    }
+
+    try {
+      inTransaction(() -> memberRepository.applyDeltas(deltas));
+    } catch (SQLException | RuntimeException e) {
+      deltas.forEach((memberId, delta) -> cells.get(memberId).pendingDelta.add(delta));
+      throw e;
+    }
+  }
+
+  // 새 이체를 막고, 진행 중인 이체가 끝나기를 정해진 시간까지 기다린 뒤 남은 증감분을 모두 반영한다.
+  // 시간 안에 끝나지 않은 이체의 증감분은 반영되지 않을 수 있으므로 예외로 알린다.
+  @Override
+  public void close() throws SQLException {
+    closed = true;
+    Lock lock = drainLock.writeLock();
+    boolean drained;
+    try {
+      drained = lock.tryLock(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      drained = false;
+    }
+
+    try {
+      flusher.shutdown();
+      try {
+        flusher.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      flush();
+    } finally {
+      if (drained) {
+        lock.unlock();
+      }
+    }
+
+    if (!drained) {
+      throw new IllegalStateException("in-flight ledger transfers did not finish within " + CLOSE_TIMEOUT_SECONDS + "s");
+    }
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (SQLException | RuntimeException e) {
+      logger.error("ledger flush error", e);
+    }
+  }
+
+  private Map<String, AccountCell> loadCells(Collection<String> hotAccounts) throws SQLException {
+    Map<String, Member> members = memberRepository.findAllById(hotAccounts);
+    Map<String, AccountCell> cells = new HashMap<>();
+
+    for (String memberId : hotAccounts) {
+      Member member = members.get(memberId);
+      if (member == null) {
+        throw new NoSuchElementException("member not found memberId = " + memberId);
+      }
+      cells.put(memberId, new AccountCell(memberId, member.getMoney()));
+    }
+    return Collections.unmodifiableMap(cells);
+  }
+
+  private void inTransaction(SqlRunnable runnable) throws SQLException {
+    TransactionStatus status = transactionManager.getTransaction();
+    try {
+      runnable.run();
+    } catch (SQLException | RuntimeException e) {
+      transactionManager.rollback(status);
+      throw e;
+    }
+    transactionManager.commit(status);
+  }
+
+  private interface SqlRunnable {
+    void run() throws SQLException;
+  }
+
+  private static class AccountCell {
+
+    private final String memberId;
+    // 잔액 확인이 필요한 출금은 CAS로, 플러시할 증감분은 스트라이프된 LongAdder로 모은다.
+    private final AtomicLong balance;
+    private final LongAdder pendingDelta = new LongAdder();
+
+    private AccountCell(String memberId, long balance) {
+      this.memberId = memberId;
+      this.balance = new AtomicLong(balance);
+    }
+
+    private void withdraw(int money) {
+      long current;
+      do {
+        current = balance.get();
+        if (current < money) {
+          throw new IllegalStateException("잔액 부족 memberId = " + memberId);
+        }
+      } while (!balance.compareAndSet(current, current - money));
+      pendingDelta.add(-money);
+    }
+
+    private void deposit(int money) {
+      balance.addAndGet(money);
+      pendingDelta.add(money);
+    }
+  }
+}
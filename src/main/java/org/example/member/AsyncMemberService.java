@@ -0,0 +1,98 @@
+package org.example.member;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.metrics.PinningMonitor;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+// MemberServiceV2 호출을 가상 스레드에서 실행하는 비동기 파사드.
+// 동시에 트랜잭션을 진행하는 호출 수를 커넥션 풀 크기로 제한해서, 나머지 호출은 getConnection()에서 플랫폼 스레드를
+// 붙잡지 않고 세마포어 앞에서 가상 스레드로 싸게 기다린다.
+public class AsyncMemberService implements AutoCloseable {
+
+  private final MemberServiceV2 memberService;
+  private final int maxConcurrency;
+  private final Semaphore permits;
+  private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("member-async-", 0).factory());
+  private final PinningMonitor pinningMonitor; // 공유하는 모니터라 파사드를 닫아도 닫지 않는다.
+
+  public AsyncMemberService(MemberServiceV2 memberService, HikariDataSource dataSource) {
+    this(memberService, dataSource.getMaximumPoolSize());
+  }
+
+  public AsyncMemberService(MemberServiceV2 memberService, int maxConcurrency) {
+    this(memberService, maxConcurrency, PinningMonitor.global());
+  }
+
+  public AsyncMemberService(MemberServiceV2 memberService, int maxConcurrency, PinningMonitor pinningMonitor) {
+    this.memberService = memberService;
+    this.maxConcurrency = maxConcurrency;
+    this.permits = new Semaphore(maxConcurrency, true); // 몰려든 순서대로 들어가도록 공정 모드
+    this.pinningMonitor = pinningMonitor;
+  }
+
+  public CompletableFuture<Void> accountTransferAsync(String fromId, String toId, int money) {
+    return submit(() -> {
+      memberService.accountTransfer(fromId, toId, money);
+      return null;
+    });
+  }
+
+  public CompletableFuture<Member> findMemberAsync(String memberId) {
+    return submit(() -> memberService.findMember(memberId));
+  }
+
+  public CompletableFuture<List<Transfer>> accountTransferBatchAsync(List<Transfer> transfers, BatchFailurePolicy policy) {
+    return submit(() -> memberService.accountTransferBatch(transfers, policy));
+  }
+
+  // 커넥션을 기다리는 대신 입장을 기다리고 있는 호출 수
+  public int getWaitingCount() {
+    return permits.getQueueLength();
+  }
+
+  public int getActiveCount() {
+    return maxConcurrency - permits.availablePermits();
+  }
+
+  public long getPinnedCount() {
+    return pinningMonitor.getPinnedCount();
+  }
+
+  private <T> CompletableFuture<T> submit(MemberCall<T> call) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    executor.execute(() -> {
+      try {
+        permits.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        future.completeExceptionally(e);
+        return;
+      }
+
+      try {
+        future.complete(call.call());
+      } catch (Throwable e) {
+        future.completeExceptionally(e);
+      } finally {
+        permits.release();
+      }
+    });
+    return future;
+  }
+
+  // 이미 접수된 호출이 모두 끝날 때까지 기다린다.
+  @Override
+  public void close() {
+    executor.close();
+  }
+
+  private interface MemberCall<T> {
+    T call() throws SQLException;
+  }
+}
@@ -0,0 +1,10 @@
+package org.example.member;
+
+public enum BatchFailurePolicy {
+
+  // 실패한 이체만 빼고 나머지는 같은 트랜잭션으로 커밋한다.
+  SKIP_FAILED,
+
+  // 하나라도 실패하면 배치 전체를 롤백한다.
+  FAIL_BATCH
+}
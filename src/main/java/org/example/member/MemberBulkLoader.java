@@ -0,0 +1,191 @@
+package org.example.member;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+// 대량의 회원을 chunkSize 단위 트랜잭션으로 나누어 여러 스레드가 동시에 적재한다.
+// member_id 해시로 회원을 writer마다 한 버킷에 나누고 writer는 자기 큐의 청크만 넣으므로, writer끼리 같은 키를 두고 경합하지 않는다.
+public class MemberBulkLoader {
+
+  // 한 INSERT 문에 넣는 행 수. H2 TCP 드라이버는 배치도 문장마다 왕복하므로 여러 행을 한 문장으로 보낸다.
+  private static final int ROWS_PER_STATEMENT = 100;
+  private static final List<Member> END = new ArrayList<>(0);
+
+  private final DataSource dataSource;
+  private final int chunkSize;
+  private final int writers;
+
+  public MemberBulkLoader(DataSource dataSource, int chunkSize, int writers) {
+    this.dataSource = dataSource;
+    this.chunkSize = chunkSize;
+    this.writers = writers;
+  }
+
+  public long load(Iterable<Member> members) {
+    return load(members.iterator());
+  }
+
+  public long load(Stream<Member> members) {
+    return load(members.iterator());
+  }
+
+  // 적재한 행 수를 반환한다. 실패하면 이미 커밋된 청크는 남아 있고, 나머지 청크는 적재하지 않는다.
+  public long load(Iterator<Member> members) {
+    AtomicInteger threadNumber = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(writers, r -> new Thread(r, "member-bulk-loader-" + threadNumber.getAndIncrement()));
+    AtomicLong loaded = new AtomicLong();
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    // writer마다 큐를 두고 미리 읽어둔 청크 수를 제한해서 입력 크기와 상관없이 메모리를 일정하게 쓴다.
+    List<BlockingQueue<List<Member>>> queues = new ArrayList<>(writers);
+    List<List<Member>> buckets = new ArrayList<>(writers);
+    for (int i = 0; i < writers; i++) {
+      BlockingQueue<List<Member>> queue = new ArrayBlockingQueue<>(2);
+      queues.add(queue);
+      buckets.add(new ArrayList<>(chunkSize));
+      executor.execute(() -> write(queue, loaded, failure));
+    }
+
+    boolean ended = false;
+    try {
+      while (members.hasNext() && failure.get() == null) {
+        Member member = members.next();
+        int bucket = Math.floorMod(member.getMemberId().hashCode(), writers);
+        List<Member> chunk = buckets.get(bucket);
+        chunk.add(member);
+        if (chunk.size() == chunkSize) {
+          queues.get(bucket).put(chunk);
+          buckets.set(bucket, new ArrayList<>(chunkSize));
+        }
+      }
+      for (int i = 0; i < writers; i++) {
+        if (!buckets.get(i).isEmpty() && failure.get() == null) {
+          queues.get(i).put(buckets.get(i));
+        }
+        queues.get(i).put(END);
+      }
+      ended = true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      failure.compareAndSet(null, e);
+    } finally {
+      if (!ended) {
+        executor.shutdownNow(); // 종료 표시를 넣지 못했으므로 writer를 인터럽트해서 멈춘다.
+      }
+      awaitTermination(executor);
+    }
+
+    if (failure.get() != null) {
+      throw new IllegalStateException("bulk load failed after " + loaded.get() + " rows: " + failure.get().getMessage(), failure.get());
+    }
+    return loaded.get();
+  }
+
+  // 실패한 뒤에도 종료 표시가 올 때까지 큐를 비워서 읽는 쪽이 put에서 멈추지 않게 한다.
+  private void write(BlockingQueue<List<Member>> queue, AtomicLong loaded, AtomicReference<Throwable> failure) {
+    try {
+      for (List<Member> chunk = queue.take(); chunk != END; chunk = queue.take()) {
+        if (failure.get() != null) {
+          continue;
+        }
+        try {
+          chunk.sort(Comparator.comparing(Member::getMemberId));
+          loaded.addAndGet(insertChunk(chunk));
+        } catch (Throwable e) {
+          failure.compareAndSet(null, e);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      failure.compareAndSet(null, e);
+    }
+  }
+
+  // H2의 CSVREAD로 DB 서버가 직접 파일을 읽어 한 문장으로 적재한다. 헤더는 MEMBER_ID,MONEY 이고,
+  // 경로는 DB 서버 기준이다. 테이블 함수 인자는 준비 단계에서 평가되므로 파라미터로 넘길 수 없다.
+  public long loadCsv(Path file) throws SQLException {
+    String fileName = file.toAbsolutePath().toString().replace("'", "''");
+    String sql = "insert into member(member_id, money) " +
+            "select member_id, cast(money as integer) from csvread('" + fileName + "', null, 'charset=UTF-8')";
+
+    try (Connection con = dataSource.getConnection(); Statement stmt = con.createStatement()) {
+      return stmt.executeLargeUpdate(sql);
+    }
+  }
+
+  private int insertChunk(List<Member> chunk) throws SQLException {
+    Connection con = dataSource.getConnection();
+
+    try {
+      con.setAutoCommit(false);
+      int fullStatements = chunk.size() / ROWS_PER_STATEMENT;
+      if (fullStatements > 0) {
+        try (PreparedStatement pstmt = con.prepareStatement(insertSql(ROWS_PER_STATEMENT))) {
+          for (int i = 0; i < fullStatements; i++) {
+            bind(pstmt, chunk.subList(i * ROWS_PER_STATEMENT, (i + 1) * ROWS_PER_STATEMENT));
+            pstmt.addBatch();
+          }
+          pstmt.executeBatch();
+        }
+      }
+
+      List<Member> rest = chunk.subList(fullStatements * ROWS_PER_STATEMENT, chunk.size());
+      if (!rest.isEmpty()) {
+        try (PreparedStatement pstmt = con.prepareStatement(insertSql(rest.size()))) {
+          bind(pstmt, rest);
+          pstmt.executeUpdate();
+        }
+      }
+      con.commit();
+      return chunk.size();
+    } catch (SQLException | RuntimeException e) {
+      con.rollback();
+      throw e;
+    } finally {
+      con.setAutoCommit(true); // 커넥션 풀 고려
+      con.close();
+    }
+  }
+
+  private String insertSql(int rows) {
+    return "insert into member(member_id, money) values " + String.join(",", Collections.nCopies(rows, "(?,?)"));
+  }
+
+  private void bind(PreparedStatement pstmt, List<Member> members) throws SQLException {
+    int index = 1;
+    for (Member member : members) {
+      pstmt.setString(index++, member.getMemberId());
+      pstmt.setInt(index++, member.getMoney());
+    }
+  }
+
+  private void awaitTermination(ExecutorService executor) {
+    executor.shutdown();
+    try {
+      while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+        // 진행 중인 청크가 커밋될 때까지 기다린다.
+      }
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,168 @@
+package org.example.member;
+
+import org.example.transactional.ConnectionHolder;
+import org.example.transactional.TransactionSynchronization;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// 커밋된 잔액만 보관하는 회원 조회 캐시. 트랜잭션 안의 변경은 커밋된 뒤에 무효화한다.
+public class MemberCache {
+
+  private static final int VERSION_STRIPES = 64;
+
+  private final int maxSize;
+  private final long ttlNanos;
+  // 조회 순서를 유지해서 가득 차면 가장 오래 조회하지 않은 항목 하나만 지운다. 조회도 순서를 바꾸므로 항상 entries 락 안에서 접근한다.
+  private final LinkedHashMap<String, CacheEntry> entries;
+
+  // 조회 도중 무효화가 끼어들면 DB에서 읽은 값이 이미 옛날 값일 수 있으므로 버전이 그대로일 때만 캐시에 넣는다.
+  private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public MemberCache(int maxSize, Duration ttl) {
+    this.maxSize = maxSize;
+    this.ttlNanos = ttl.toNanos();
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  public Member get(String memberId, MemberLoader loader) throws SQLException {
+    long now = System.nanoTime();
+    CacheEntry entry;
+    synchronized (entries) {
+      entry = entries.get(memberId);
+    }
+    if (entry != null && entry.member != null && entry.isLive(now)) {
+      hits.increment();
+      return entry.member;
+    }
+
+    misses.increment();
+    int stripe = stripe(memberId);
+    long version = versions.get(stripe);
+    Member member = loader.load(memberId);
+
+    if (entry == null || !entry.isLive(now)) { // 수동 트랜잭션이 바꾸는 중인 회원(tombstone)은 캐시하지 않는다.
+      synchronized (entries) {
+        if (versions.get(stripe) == version) {
+          entries.put(memberId, new CacheEntry(member, now + ttlNanos));
+        }
+      }
+    }
+    return member;
+  }
+
+  public void invalidate(Collection<String> memberIds) {
+    synchronized (entries) {
+      for (String memberId : memberIds) {
+        versions.incrementAndGet(stripe(memberId));
+        entries.remove(memberId);
+      }
+    }
+  }
+
+  // 트랜잭션에서 바꾼 회원은 커밋된 뒤에만 무효화하고, 롤백되면 아무것도 하지 않는다.
+  public void invalidateAfterCommit(ConnectionHolder holder, Collection<String> memberIds) {
+    pendingInvalidation(holder, true).memberIds.addAll(memberIds);
+  }
+
+  // 커밋 시점을 알 수 없는 변경(직접 관리하는 트랜잭션)은 TTL 동안 캐시하지 않는다.
+  public void invalidateUntilExpiry(Collection<String> memberIds) {
+    long expiresAt = System.nanoTime() + ttlNanos;
+    synchronized (entries) {
+      for (String memberId : memberIds) {
+        versions.incrementAndGet(stripe(memberId));
+        entries.put(memberId, new CacheEntry(null, expiresAt));
+      }
+    }
+  }
+
+  // 현재 트랜잭션이 바꾼 회원은 자기 변경을 읽어야 하므로 캐시를 거치지 않는다.
+  public boolean hasPendingWrite(ConnectionHolder holder, String memberId) {
+    PendingInvalidation pending = pendingInvalidation(holder, false);
+    return pending != null && pending.memberIds.contains(memberId);
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  private PendingInvalidation pendingInvalidation(ConnectionHolder holder, boolean create) {
+    for (TransactionSynchronization synchronization : holder.getSynchronizations()) {
+      if (synchronization instanceof PendingInvalidation && ((PendingInvalidation) synchronization).cache == this) {
+        return (PendingInvalidation) synchronization;
+      }
+    }
+    if (!create) {
+      return null;
+    }
+
+    PendingInvalidation pending = new PendingInvalidation(this);
+    holder.registerSynchronization(pending);
+    return pending;
+  }
+
+  private static int stripe(String memberId) {
+    return memberId.hashCode() & (VERSION_STRIPES - 1);
+  }
+
+  public interface MemberLoader {
+    Member load(String memberId) throws SQLException;
+  }
+
+  private static class CacheEntry {
+
+    private final Member member;
+    private final long expiresAt;
+
+    private CacheEntry(Member member, long expiresAt) {
+      this.member = member;
+      this.expiresAt = expiresAt;
+    }
+
+    private boolean isLive(long now) {
+      return now - expiresAt < 0;
+    }
+  }
+
+  private static class PendingInvalidation implements TransactionSynchronization {
+
+    private final MemberCache cache;
+    private final Set<String> memberIds = new HashSet<>();
+
+    private PendingInvalidation(MemberCache cache) {
+      this.cache = cache;
+    }
+
+    @Override
+    public void afterCompletion(boolean committed) {
+      if (committed) {
+        cache.invalidate(memberIds);
+      }
+    }
+  }
+}
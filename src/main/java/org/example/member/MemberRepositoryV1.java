@@ -1,43 +1,98 @@
 package org.example.member;
 
+import org.example.db.StatementCache;
+import org.example.di.Inject;
+import org.example.transactional.ConnectionHolder;
+import org.example.transactional.DataSourceUtils;
+import org.example.transactional.TransactionSynchronizationManager;
+
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class MemberRepositoryV1 {
 
+  private static final int IN_CLAUSE_SIZE = 500;
+
   private final DataSource dataSource;
+  private final StatementCache statementCache;
+  private final MemberCache memberCache; // null이면 캐시를 사용하지 않는다.
 
   public MemberRepositoryV1(DataSource dataSource) {
+    this(dataSource, new StatementCache());
+  }
+
+  public MemberRepositoryV1(DataSource dataSource, StatementCache statementCache) {
+    this(dataSource, statementCache, null);
+  }
+
+  @Inject
+  public MemberRepositoryV1(DataSource dataSource, StatementCache statementCache, MemberCache memberCache) {
     this.dataSource = dataSource;
+    this.statementCache = statementCache;
+    this.memberCache = memberCache;
   }
 
   public Member save(Member member) throws SQLException {
     String sql = "insert into member(member_id, money) values(?,?)";
-    Connection con = dataSource.getConnection();
-    PreparedStatement pstmt = con.prepareStatement(sql);
-
-    try (con; pstmt) {
+    Connection con = getConnection();
 
+    try {
+      PreparedStatement pstmt = prepareStatement(con, sql);
       pstmt.setString(1, member.getMemberId());
       pstmt.setInt(2, member.getMoney());
       pstmt.executeUpdate();
       return member;
-    } catch (SQLException e) {
-      throw e;
+    } finally {
+      releaseConnection(con);
     }
   }
 
+  // 커밋된 값만 캐시에서 읽는다. 현재 트랜잭션에서 바꾼 회원은 DB에서 읽는다.
   public Member findById(String memberId) throws SQLException {
+    if (memberCache == null) {
+      return loadById(memberId);
+    }
+
+    ConnectionHolder holder = TransactionSynchronizationManager.getResource(dataSource);
+    if (holder != null && memberCache.hasPendingWrite(holder, memberId)) {
+      return loadById(memberId);
+    }
+    return memberCache.get(memberId, this::loadById);
+  }
+
+  private Member loadById(String memberId) throws SQLException {
+    Connection con = getConnection();
+
+    try {
+      return findById(con, memberId);
+    } finally {
+      releaseConnection(con);
+    }
+  }
+
+  public Member findById(Connection con, String memberId) throws SQLException {
     String sql = "select * from member where member_id = ?";
-    Connection con = dataSource.getConnection();
     PreparedStatement pstmt = createPreparedStatement(con, sql, memberId);
     ResultSet rs = pstmt.executeQuery();
 
-    try (con; pstmt; rs) {
+    try (rs) { // connection과 캐시된 statement는 여기서 닫히지 않는다.
 
       if (rs.next()) {
         return new Member(
@@ -51,71 +106,425 @@ public class MemberRepositoryV1 {
     }
   }
 
-  public Member findById(Connection con, String memberId) throws SQLException {
-    String sql = "select * from member where member_id = ?";
-    PreparedStatement pstmt = createPreparedStatement(con, sql, memberId);
-    ResultSet rs = pstmt.executeQuery();
+  // member_id 순으로 정렬된 맵을 반환한다. 없는 회원은 맵에 들어있지 않다.
+  public Map<String, Member> findAllById(Collection<String> memberIds) throws SQLException {
+    return findAllById(memberIds, false);
+  }
 
-    try (pstmt; rs) { // connection은 여기서 닫히지 않는다.
+  // 행 잠금을 member_id 순서로 잡기 때문에 서로 반대 방향으로 이체해도 데드락이 나지 않는다.
+  public Map<String, Member> findAllByIdForUpdate(Collection<String> memberIds) throws SQLException {
+    return findAllById(memberIds, true);
+  }
 
-      if (rs.next()) {
-        return new Member(
-                rs.getString("member_id"),
-                rs.getInt("money"));
-      } else {
-        throw new NoSuchElementException("member not found memberId = " + memberId);
+  private Map<String, Member> findAllById(Collection<String> memberIds, boolean forUpdate) throws SQLException {
+    Map<String, Member> members = new TreeMap<>();
+    List<String> ids = new ArrayList<>(new TreeSet<>(memberIds));
+    Connection con = getConnection();
+
+    try {
+      for (int from = 0; from < ids.size(); from += IN_CLAUSE_SIZE) {
+        List<String> chunk = ids.subList(from, Math.min(from + IN_CLAUSE_SIZE, ids.size()));
+        String sql = "select * from member where member_id in (" + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")" +
+                " order by member_id" + (forUpdate ? " for update" : "");
+
+        try (PreparedStatement pstmt = con.prepareStatement(sql)) { // IN 절 길이가 달라지므로 캐시하지 않는다.
+          DataSourceUtils.applyTransactionTimeout(pstmt, con, dataSource);
+          for (int i = 0; i < chunk.size(); i++) {
+            pstmt.setString(i + 1, chunk.get(i));
+          }
+
+          try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+              Member member = new Member(rs.getString("member_id"), rs.getInt("money"));
+              members.put(member.getMemberId(), member);
+            }
+          }
+        }
       }
-    } catch (SQLException e) {
+      return members;
+    } finally {
+      releaseConnection(con);
+    }
+  }
+
+  // 전체 회원을 member_id 순서의 forward-only 커서로 fetchSize 행씩 가져오며 읽는다.
+  // 스트림을 닫아야 커넥션이 반납되므로 try-with-resources로 사용한다.
+  public Stream<Member> streamAll(int fetchSize) throws SQLException {
+    String sql = "select * from member order by member_id";
+    Connection con = getConnection();
+
+    PreparedStatement pstmt = null;
+    try {
+      // 커서가 열려 있는 동안 같은 Statement를 다시 실행하면 안 되므로 캐시하지 않는다.
+      pstmt = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      pstmt.setFetchSize(fetchSize);
+      DataSourceUtils.applyTransactionTimeout(pstmt, con, dataSource);
+      ResultSet rs = pstmt.executeQuery();
+
+      PreparedStatement cursor = pstmt;
+      return StreamSupport.stream(new CursorSpliterator(rs), false)
+              .onClose(() -> closeCursor(cursor, con));
+    } catch (SQLException | RuntimeException e) {
+      closeCursor(pstmt, con);
       throw e;
     }
   }
 
+  // afterMemberId 다음 회원부터 member_id 순서로 최대 limit명을 반환한다. null이면 처음부터 읽는다.
+  public List<Member> findAllAfter(String afterMemberId, int limit) throws SQLException {
+    String sql = afterMemberId == null
+            ? "select * from member order by member_id limit ?"
+            : "select * from member where member_id > ? order by member_id limit ?";
+    Connection con = getConnection();
+
+    try {
+      PreparedStatement pstmt = prepareStatement(con, sql);
+      int index = 1;
+      if (afterMemberId != null) {
+        pstmt.setString(index++, afterMemberId);
+      }
+      pstmt.setInt(index, limit);
+
+      List<Member> members = new ArrayList<>(limit);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        while (rs.next()) {
+          members.add(new Member(rs.getString("member_id"), rs.getInt("money")));
+        }
+      }
+      return members;
+    } finally {
+      releaseConnection(con);
+    }
+  }
+
+  // 키셋 페이지 단위로 읽는 스트림. 페이지마다 커넥션을 잠깐 빌렸다 반납하므로 오래 걸리는 작업에서도
+  // 커넥션을 붙잡고 있지 않는다. 페이지 사이에 바뀐 행은 반영될 수 있다.
+  public Stream<Member> streamAllByKeyset(int pageSize) {
+    return StreamSupport.stream(new KeysetSpliterator(pageSize), false);
+  }
+
   public void update(String memberId, int money) throws SQLException {
+    Connection con = getConnection();
+
+    try {
+      update(con, memberId, money);
+    } finally {
+      releaseConnection(con);
+    }
+  }
+
+  public void update(Connection con, String memberId, int money) throws SQLException {
     String sql = "update member set money = ? where member_id = ?";
 
-    Connection con = dataSource.getConnection();
-    PreparedStatement pstmt = con.prepareStatement(sql);
+    PreparedStatement pstmt = prepareStatement(con, sql); // connection은 여기서 닫히지 않는다.
+    pstmt.setInt(1, money);
+    pstmt.setString(2, memberId);
+    try {
+      pstmt.executeUpdate();
+    } finally {
+      invalidate(con, List.of(memberId));
+    }
+  }
+
+  // 출금/입금을 상대값 조건부 UPDATE 한 문장으로 처리한다. 현재 트랜잭션 안에서만 호출할 수 있다.
+  public void transfer(String fromId, String toId, int money) throws SQLException {
+    Connection con = getConnection();
+
+    try {
+      if (con.getAutoCommit()) {
+        throw new IllegalStateException("transfer requires a transaction");
+      }
+      transfer(con, fromId, toId, money);
+    } finally {
+      releaseConnection(con);
+    }
+  }
+
+  public void transfer(Connection con, String fromId, String toId, int money) throws SQLException {
+    if (fromId.equals(toId)) {
+      findById(con, fromId); // 자기 자신에게 이체하면 잔액 변화가 없다.
+      return;
+    }
+    lockInOrder(con, fromId, toId);
+
+    // 출금 행의 money >= ? 조건은 잠긴 행에서 평가되므로 동시에 이체해도 잔액을 잃어버리지 않는다.
+    String sql = "update member set money = money + case when member_id = ? then -? else ? end " +
+            "where member_id in (?, ?) and (member_id <> ? or money >= ?)";
 
-    try (con; pstmt) {
+    PreparedStatement pstmt = prepareStatement(con, sql); // connection은 여기서 닫히지 않는다.
+    pstmt.setString(1, fromId);
+    pstmt.setInt(2, money);
+    pstmt.setInt(3, money);
+    pstmt.setString(4, fromId);
+    pstmt.setString(5, toId);
+    pstmt.setString(6, fromId);
+    pstmt.setInt(7, money);
+    int count;
+    try {
+      count = pstmt.executeUpdate();
+    } finally {
+      invalidate(con, List.of(fromId, toId));
+    }
+
+    if (count != 2) {
+      // 입금만 반영되었으므로 예외를 던져 트랜잭션을 롤백시킨다.
+      throw new IllegalStateException("잔액 부족 memberId = " + fromId);
+    }
+  }
+
+  // 두 회원의 행 잠금을 항상 member_id 순서로 먼저 잡는다. 없는 회원이 있으면 UPDATE 전에 실패한다.
+  private void lockInOrder(Connection con, String fromId, String toId) throws SQLException {
+    String sql = "select member_id from member where member_id in (?, ?) order by member_id for update";
+    boolean fromFirst = fromId.compareTo(toId) < 0;
+
+    PreparedStatement pstmt = prepareStatement(con, sql);
+    pstmt.setString(1, fromFirst ? fromId : toId);
+    pstmt.setString(2, fromFirst ? toId : fromId);
+
+    boolean fromFound = false;
+    boolean toFound = false;
+    try (ResultSet rs = pstmt.executeQuery()) {
+      while (rs.next()) {
+        String memberId = rs.getString(1);
+        fromFound |= memberId.equals(fromId);
+        toFound |= memberId.equals(toId);
+      }
+    }
+
+    if (!toFound) {
+      throw new NoSuchElementException("member not found memberId = " + toId);
+    }
+    if (!fromFound) {
+      throw new NoSuchElementException("member not found memberId = " + fromId);
+    }
+  }
+
+  // 잔액이 충분할 때만 출금한다.
+  public void withdraw(String memberId, int money) throws SQLException {
+    String sql = "update member set money = money - ? where member_id = ? and money >= ?";
+    Connection con = getConnection();
+
+    try {
+      PreparedStatement pstmt = prepareStatement(con, sql);
       pstmt.setInt(1, money);
       pstmt.setString(2, memberId);
-      pstmt.executeUpdate();
-    } catch (SQLException e) {
-      throw e;
+      pstmt.setInt(3, money);
+      if (pstmt.executeUpdate() != 1) {
+        findById(con, memberId);
+        throw new IllegalStateException("잔액 부족 memberId = " + memberId);
+      }
+    } finally {
+      invalidate(con, List.of(memberId));
+      releaseConnection(con);
     }
   }
 
-  public void update(Connection con, String memberId, int money) throws SQLException {
-    String sql = "update member set money = ? where member_id = ?";
-
-    PreparedStatement pstmt = con.prepareStatement(sql);
+  public void deposit(String memberId, int money) throws SQLException {
+    String sql = "update member set money = money + ? where member_id = ?";
+    Connection con = getConnection();
 
-    try (pstmt) { // connection은 여기서 닫히지 않는다.
+    try {
+      PreparedStatement pstmt = prepareStatement(con, sql);
       pstmt.setInt(1, money);
       pstmt.setString(2, memberId);
-      pstmt.executeUpdate();
-    } catch (SQLException e) {
-      throw e;
+      if (pstmt.executeUpdate() != 1) {
+        throw new NoSuchElementException("member not found memberId = " + memberId);
+      }
+    } finally {
+      invalidate(con, List.of(memberId));
+      releaseConnection(con);
+    }
+  }
+
+  // 회원별 잔액 증감분을 상대값 UPDATE 한 번의 executeBatch로 반영한다.
+  public void applyDeltas(Map<String, Long> deltas) throws SQLException {
+    String sql = "update member set money = money + ? where member_id = ?";
+    Connection con = getConnection();
+
+    PreparedStatement pstmt = null;
+    try {
+      pstmt = prepareStatement(con, sql);
+      for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+        pstmt.setLong(1, delta.getValue());
+        pstmt.setString(2, delta.getKey());
+        pstmt.addBatch();
+      }
+      pstmt.executeBatch();
+    } finally {
+      if (pstmt != null) {
+        pstmt.clearBatch();
+      }
+      invalidate(con, deltas.keySet());
+      releaseConnection(con);
+    }
+  }
+
+  // 여러 회원의 잔액 증감분을 한 번의 executeBatch로 반영한다.
+  // 절대값 대신 상대값으로 쓰고 잔액 조건을 걸어, 잠금 없이 읽은 값으로 호출되더라도 갱신이 유실되거나 음수가 되지 않는다.
+  public void updateBatch(Map<String, Long> deltas) throws SQLException {
+    String sql = "update member set money = money + ? where member_id = ? and money + ? >= 0";
+    List<String> memberIds = new ArrayList<>(deltas.keySet());
+    Connection con = getConnection();
+
+    PreparedStatement pstmt = null;
+    try {
+      pstmt = prepareStatement(con, sql);
+      for (String memberId : memberIds) {
+        long delta = deltas.get(memberId);
+        pstmt.setLong(1, delta);
+        pstmt.setString(2, memberId);
+        pstmt.setLong(3, delta);
+        pstmt.addBatch();
+      }
+      int[] counts = pstmt.executeBatch();
+      for (int i = 0; i < counts.length; i++) {
+        if (counts[i] == 0) {
+          throw new IllegalStateException("잔액 부족 memberId = " + memberIds.get(i));
+        }
+      }
+    } finally {
+      if (pstmt != null) {
+        pstmt.clearBatch(); // 실패해서 남은 배치가 다음 호출에 섞이지 않도록 비운다.
+      }
+      invalidate(con, memberIds);
+      releaseConnection(con);
     }
   }
 
   public void delete(String memberId) throws SQLException {
     String sql = "delete from member where member_id = ?";
+    Connection con = getConnection();
 
-    Connection con = dataSource.getConnection();
-    PreparedStatement pstmt = con.prepareStatement(sql);
-
-    try (con; pstmt) {
+    try {
+      PreparedStatement pstmt = prepareStatement(con, sql);
       pstmt.setString(1, memberId);
       pstmt.executeUpdate();
+    } finally {
+      invalidate(con, List.of(memberId));
+      releaseConnection(con);
+    }
+  }
+
+  // 트랜잭션 안이면 현재 스레드에 바인딩된 커넥션을 사용한다.
+  private Connection getConnection() throws SQLException {
+    return DataSourceUtils.getConnection(dataSource);
+  }
+
+  private void releaseConnection(Connection con) {
+    DataSourceUtils.releaseConnection(con, dataSource);
+  }
+
+  // 트랜잭션 커넥션의 변경은 커밋 후에, 자동 커밋이면 바로 캐시에서 지운다.
+  // 직접 관리하는 트랜잭션은 커밋 시점을 알 수 없으므로 TTL 동안 캐시하지 않는다.
+  private void invalidate(Connection con, Collection<String> memberIds) {
+    if (memberCache == null) {
+      return;
+    }
+
+    ConnectionHolder holder = TransactionSynchronizationManager.getResource(dataSource);
+    if (holder != null && holder.getConnection() == con) {
+      memberCache.invalidateAfterCommit(holder, memberIds);
+    } else if (isAutoCommit(con)) {
+      memberCache.invalidate(memberIds);
+    } else {
+      memberCache.invalidateUntilExpiry(memberIds);
+    }
+  }
+
+  private boolean isAutoCommit(Connection con) {
+    try {
+      return con.getAutoCommit();
     } catch (SQLException e) {
-      throw e;
+      return false;
+    }
+  }
+
+  private void closeCursor(PreparedStatement pstmt, Connection con) {
+    try {
+      if (pstmt != null) {
+        pstmt.close(); // ResultSet도 함께 닫힌다.
+      }
+    } catch (SQLException e) {
+      throw new IllegalStateException(e.getMessage(), e);
+    } finally {
+      releaseConnection(con);
     }
   }
 
+  // 캐시된 Statement에 현재 트랜잭션의 남은 시간을 쿼리 타임아웃으로 건다.
+  private PreparedStatement prepareStatement(Connection con, String sql) throws SQLException {
+    PreparedStatement pstmt = statementCache.prepareStatement(con, sql);
+    DataSourceUtils.applyTransactionTimeout(pstmt, con, dataSource);
+    return pstmt;
+  }
+
   private PreparedStatement createPreparedStatement(Connection con, String sql, String memberId) throws SQLException {
-    PreparedStatement pstmt = con.prepareStatement(sql);
+    PreparedStatement pstmt = prepareStatement(con, sql);
     pstmt.setString(1, memberId);
     return pstmt;
   }
+
+  private static class CursorSpliterator extends Spliterators.AbstractSpliterator<Member> {
+
+    private final ResultSet rs;
+
+    private CursorSpliterator(ResultSet rs) {
+      super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+      this.rs = rs;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Member> action) {
+      try {
+        if (!rs.next()) {
+          return false;
+        }
+        action.accept(new Member(rs.getString("member_id"), rs.getInt("money")));
+        return true;
+      } catch (SQLException e) {
+        throw new IllegalStateException(e.getMessage(), e);
+      }
+    }
+  }
+
+  private class KeysetSpliterator extends Spliterators.AbstractSpliterator<Member> {
+
+    private final int pageSize;
+    private Iterator<Member> page = Collections.emptyIterator();
+    private String lastMemberId;
+    private boolean lastPage;
+
+    private KeysetSpliterator(int pageSize) {
+      super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+      this.pageSize = pageSize;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Member> action) {
+      if (!page.hasNext()) {
+        if (lastPage) {
+          return false;
+        }
+        nextPage();
+        if (!page.hasNext()) {
+          return false;
+        }
+      }
+
+      Member member = page.next();
+      lastMemberId = member.getMemberId();
+      action.accept(member);
+      return true;
+    }
+
+    private void nextPage() {
+      try {
+        List<Member> members = findAllAfter(lastMemberId, pageSize);
+        lastPage = members.size() < pageSize;
+        page = members.iterator();
+      } catch (SQLException e) {
+        throw new IllegalStateException(e.getMessage(), e);
+      }
+    }
+  }
 }
@@ -1,5 +1,6 @@
 package org.example.member;
 
+import org.example.di.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,6 +15,7 @@ public class MemberServiceV1 {
 
   private static final Logger logger = LoggerFactory.getLogger(MemberServiceV1.class);
 
+  @Inject
   public MemberServiceV1(DataSource dataSource, MemberRepositoryV1 memberRepository) {
     this.dataSource = dataSource;
     this.memberRepository = memberRepository;
@@ -48,16 +50,12 @@ public class MemberServiceV1 {
   }
 
   private void bizLogic(Connection con, String fromId, String toId, int money) throws SQLException {
-    Member fromMember = memberRepository.findById(con, fromId);
-    Member toMember = memberRepository.findById(con, toId);
-
-    memberRepository.update(con, fromId, fromMember.getMoney() - money);
-    validation(toMember);
-    memberRepository.update(con, toId, toMember.getMoney() + money);
+    memberRepository.transfer(con, fromId, toId, money);
+    validation(toId); // 이체를 반영한 뒤 예외가 나면 이미 실행한 UPDATE까지 롤백된다.
   }
 
-  private void validation(Member toMember) {
-    if (toMember.getMemberId().equals("ex")) {
+  private void validation(String toId) {
+    if (toId.equals("ex")) {
       throw new IllegalStateException("이체중 예외 발생");
     }
   }
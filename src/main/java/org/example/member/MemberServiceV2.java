@@ -1,9 +1,14 @@
 package org.example.member;
 
-import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.List;
 
 public interface MemberServiceV2 {
 
-  void accountTransfer(String fromId, String toId, int money, Connection con) throws SQLException;
+  void accountTransfer(String fromId, String toId, int money) throws SQLException;
+
+  Member findMember(String memberId) throws SQLException;
+
+  // 실패해서 빠진 이체 목록을 반환한다. FAIL_BATCH면 실패 시 예외가 발생한다.
+  List<Transfer> accountTransferBatch(List<Transfer> transfers, BatchFailurePolicy policy) throws SQLException;
 }
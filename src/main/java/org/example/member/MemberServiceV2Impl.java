@@ -3,33 +3,91 @@ package org.example.member;
 import org.example.di.Inject;
 import org.example.transactional.MyTransactional;
 
-import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 public class MemberServiceV2Impl implements MemberServiceV2 {
 
   private MemberRepositoryV1 memberRepository;
 
+  @Inject
   public MemberServiceV2Impl(MemberRepositoryV1 memberRepository) {
     this.memberRepository = memberRepository;
   }
 
-  @MyTransactional
-  public void accountTransfer(String fromId, String toId, int money, Connection con) throws SQLException {
-    bizLogic(con, fromId, toId, money);
+  @MyTransactional(maxRetries = 3, timeout = 5)
+  public void accountTransfer(String fromId, String toId, int money) throws SQLException {
+    bizLogic(fromId, toId, money);
   }
 
-  private void bizLogic(Connection con, String fromId, String toId, int money) throws SQLException {
-    Member fromMember = memberRepository.findById(con, fromId);
-    Member toMember = memberRepository.findById(con, toId);
+  @MyTransactional(readOnly = true)
+  public Member findMember(String memberId) throws SQLException {
+    return memberRepository.findById(memberId);
+  }
+
+  // 관련 회원을 member_id 순서로 잠그며 한 번에 읽어 메모리에서 검증하고, 회원별 증감분만 JDBC 배치로 쓴 뒤 한 번 커밋한다.
+  @MyTransactional(maxRetries = 3)
+  public List<Transfer> accountTransferBatch(List<Transfer> transfers, BatchFailurePolicy policy) throws SQLException {
+    TreeSet<String> memberIds = new TreeSet<>();
+    for (Transfer transfer : transfers) {
+      memberIds.add(transfer.getFromId());
+      memberIds.add(transfer.getToId());
+    }
+    Map<String, Member> members = memberRepository.findAllByIdForUpdate(memberIds);
+
+    List<Transfer> failed = new ArrayList<>();
+    Map<String, Long> deltas = new TreeMap<>();
+    for (Transfer transfer : transfers) {
+      try {
+        apply(members, transfer);
+        deltas.merge(transfer.getFromId(), (long) -transfer.getMoney(), Long::sum);
+        deltas.merge(transfer.getToId(), (long) transfer.getMoney(), Long::sum);
+      } catch (RuntimeException e) {
+        if (policy == BatchFailurePolicy.FAIL_BATCH) {
+          throw e;
+        }
+        failed.add(transfer); // 이 이체는 잔액에 반영되지 않았으므로 빼고 나머지를 계속 진행한다.
+      }
+    }
+
+    memberRepository.updateBatch(deltas);
+    return failed;
+  }
+
+  private void apply(Map<String, Member> members, Transfer transfer) {
+    Member fromMember = getMember(members, transfer.getFromId());
+    getMember(members, transfer.getToId());
+    validation(transfer.getToId());
+    if (fromMember.getMoney() < transfer.getMoney()) {
+      throw new IllegalStateException("잔액 부족 memberId = " + fromMember.getMemberId());
+    }
+
+    members.put(fromMember.getMemberId(), new Member(fromMember.getMemberId(), fromMember.getMoney() - transfer.getMoney()));
+    Member toMember = members.get(transfer.getToId()); // 자기 자신에게 이체하는 경우를 위해 다시 읽는다.
+    members.put(toMember.getMemberId(), new Member(toMember.getMemberId(), toMember.getMoney() + transfer.getMoney()));
+  }
+
+  private Member getMember(Map<String, Member> members, String memberId) {
+    Member member = members.get(memberId);
+    if (member == null) {
+      throw new NoSuchElementException("member not found memberId = " + memberId);
+    }
+    return member;
+  }
 
-    memberRepository.update(con, fromId, fromMember.getMoney() - money);
-    validation(toMember);
-    memberRepository.update(con, toId, toMember.getMoney() + money);
+  // 커넥션은 리포지토리가 현재 스레드에 바인딩된 트랜잭션 커넥션을 꺼내 쓴다.
+  private void bizLogic(String fromId, String toId, int money) throws SQLException {
+    memberRepository.transfer(fromId, toId, money);
+    validation(toId); // 이체를 반영한 뒤 예외가 나면 이미 실행한 UPDATE까지 롤백된다.
   }
 
-  private void validation(Member toMember) {
-    if (toMember.getMemberId().equals("ex")) {
+  private void validation(String toId) {
+    if (toId.equals("ex")) {
       throw new IllegalStateException("이체중 예외 발생");
     }
   }
@@ -0,0 +1,33 @@
+package org.example.member;
+
+import org.example.di.Inject;
+import org.example.transactional.MyTransactional;
+
+import java.sql.SQLException;
+
+// 인터페이스 없이 구체 클래스만 있는 서비스. 서브클래스 프록시로 트랜잭션이 적용된다.
+public class MemberServiceV3 {
+
+  private final MemberRepositoryV1 memberRepository;
+
+  @Inject
+  public MemberServiceV3(MemberRepositoryV1 memberRepository) {
+    this.memberRepository = memberRepository;
+  }
+
+  @MyTransactional(maxRetries = 3, timeout = 5)
+  public void accountTransfer(String fromId, String toId, int money) throws SQLException {
+    bizLogic(fromId, toId, money);
+  }
+
+  private void bizLogic(String fromId, String toId, int money) throws SQLException {
+    memberRepository.transfer(fromId, toId, money);
+    validation(toId); // 이체를 반영한 뒤 예외가 나면 이미 실행한 UPDATE까지 롤백된다.
+  }
+
+  private void validation(String toId) {
+    if (toId.equals("ex")) {
+      throw new IllegalStateException("이체중 예외 발생");
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package org.example.member;
+
+public class Transfer {
+
+  private final String fromId;
+  private final String toId;
+  private final int money;
+
+  public Transfer(String fromId, String toId, int money) {
+    this.fromId = fromId;
+    this.toId = toId;
+    this.money = money;
+  }
+
+  public String getFromId() {
+    return fromId;
+  }
+
+  public String getToId() {
+    return toId;
+  }
+
+  public int getMoney() {
+    return money;
+  }
+
+  @Override
+  public String toString() {
+    return "Transfer{" +
+            "fromId='" + fromId + '\'' +
+            ", toId='" + toId + '\'' +
+            ", money=" + money +
+            '}';
+  }
+}
@@ -0,0 +1,95 @@
+package org.example.metrics;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+
+// 트랜잭션 메트릭과 커넥션 풀 게이지를 한 곳에 모아 텍스트로 내보낸다.
+public class MetricsRegistry {
+
+  private static final MetricsRegistry global = new MetricsRegistry();
+
+  private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+  private final Map<String, TransactionMetrics> transactions = new ConcurrentHashMap<>();
+  private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+  public static MetricsRegistry global() {
+    return global;
+  }
+
+  public TransactionMetrics transactionMetrics(String name) {
+    TransactionMetrics metrics = transactions.get(name); // 이미 있으면 락 없이 찾는다.
+    if (metrics != null) {
+      return metrics;
+    }
+    return transactions.computeIfAbsent(name, TransactionMetrics::new);
+  }
+
+  public void registerGauge(String name, LongSupplier supplier) {
+    gauges.put(name, supplier);
+  }
+
+  // 그 사이 같은 이름으로 다른 게이지가 등록되었으면 그대로 둔다.
+  public void unregisterGauge(String name, LongSupplier supplier) {
+    gauges.remove(name, supplier);
+  }
+
+  // 풀은 첫 커넥션 요청 때 만들어지므로 그 전에는 0으로 보고한다.
+  public void registerPool(HikariDataSource dataSource) {
+    String poolName = dataSource.getPoolName();
+    registerPoolGauge(dataSource, "hikari_connections_active{pool=\"" + poolName + "\"}", HikariPoolMXBean::getActiveConnections);
+    registerPoolGauge(dataSource, "hikari_connections_idle{pool=\"" + poolName + "\"}", HikariPoolMXBean::getIdleConnections);
+    registerPoolGauge(dataSource, "hikari_connections_pending{pool=\"" + poolName + "\"}", HikariPoolMXBean::getThreadsAwaitingConnection);
+    registerPoolGauge(dataSource, "hikari_connections_total{pool=\"" + poolName + "\"}", HikariPoolMXBean::getTotalConnections);
+  }
+
+  private void registerPoolGauge(HikariDataSource dataSource, String name, ToIntFunction<HikariPoolMXBean> gauge) {
+    registerGauge(name, () -> {
+      HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+      return pool == null ? 0 : gauge.applyAsInt(pool);
+    });
+  }
+
+  // Prometheus 텍스트 형식과 비슷하게 한 줄에 값 하나씩 출력한다. 시간 단위는 마이크로초.
+  public String dump() {
+    StringBuilder sb = new StringBuilder();
+    new TreeMap<>(gauges).forEach((name, supplier) -> sb.append(name).append(' ').append(supplier.getAsLong()).append('\n'));
+
+    for (TransactionMetrics metrics : new TreeMap<>(transactions).values()) {
+      String label = "{method=\"" + metrics.getName() + "\"";
+      appendCounter(sb, "tx_commits", label, metrics.getCommitCount());
+      appendCounter(sb, "tx_rollbacks", label, metrics.getRollbackCount());
+      appendCounter(sb, "tx_retries", label, metrics.getRetryCount());
+      appendCounter(sb, "tx_errors", label, metrics.getErrorCount());
+      appendHistogram(sb, "tx_acquire_us", label, metrics.getAcquire());
+      appendHistogram(sb, "tx_begin_us", label, metrics.getBegin());
+      appendHistogram(sb, "tx_body_us", label, metrics.getBody());
+      appendHistogram(sb, "tx_commit_us", label, metrics.getCommit());
+      appendHistogram(sb, "tx_rollback_us", label, metrics.getRollback());
+    }
+    return sb.toString();
+  }
+
+  private void appendCounter(StringBuilder sb, String name, String label, long value) {
+    sb.append(name).append(label).append("} ").append(value).append('\n');
+  }
+
+  private void appendHistogram(StringBuilder sb, String name, String label, Histogram histogram) {
+    if (histogram.getCount() == 0) {
+      return;
+    }
+    for (double quantile : QUANTILES) {
+      sb.append(name).append(label).append(",quantile=\"").append(quantile).append("\"} ")
+              .append(histogram.percentile(quantile) / 1000).append('\n');
+    }
+    sb.append(name).append("_max").append(label).append("} ").append(histogram.getMax() / 1000).append('\n');
+    sb.append(name).append("_sum").append(label).append("} ").append(histogram.getSum() / 1000).append('\n');
+    sb.append(name).append("_count").append(label).append("} ").append(histogram.getCount()).append('\n');
+  }
+}
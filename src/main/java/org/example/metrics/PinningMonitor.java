@@ -0,0 +1,81 @@
+package org.example.metrics;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// synchronized 안에서 블로킹되어 가상 스레드가 캐리어 스레드를 붙잡은(pinned) 경우를 JFR 이벤트로 잡아 로그로 남긴다.
+// H2, HikariCP의 synchronized 구간에서 커넥션 I/O를 기다리면 발생한다.
+// JFR 이벤트는 프로세스 전체에서 발생하므로 보통은 global() 하나를 공유한다. global()은 닫지 않는다.
+public class PinningMonitor implements AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(PinningMonitor.class);
+
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+  private static final String GAUGE_NAME = "virtual_thread_pinned_total";
+  private static final Duration DEFAULT_THRESHOLD = Duration.ofMillis(20);
+  private static final int MAX_FRAMES = 10;
+
+  private final RecordingStream stream = new RecordingStream();
+  private final LongAdder pinnedCount = new LongAdder();
+  private final MetricsRegistry metricsRegistry;
+  private final LongSupplier gauge = pinnedCount::sum;
+
+  public PinningMonitor(Duration threshold, MetricsRegistry metricsRegistry) {
+    this.metricsRegistry = metricsRegistry;
+    stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+    stream.onEvent(PINNED_EVENT, this::report);
+    stream.startAsync();
+    metricsRegistry.registerGauge(GAUGE_NAME, gauge);
+  }
+
+  // 처음 사용할 때 JFR 스트림을 시작한다.
+  public static PinningMonitor global() {
+    return GlobalHolder.INSTANCE;
+  }
+
+  public long getPinnedCount() {
+    return pinnedCount.sum();
+  }
+
+  private void report(RecordedEvent event) {
+    pinnedCount.increment();
+    logger.warn("virtual thread pinned for {}ms{}", event.getDuration().toMillis(), format(event.getStackTrace()));
+  }
+
+  private String format(RecordedStackTrace stackTrace) {
+    if (stackTrace == null) {
+      return "";
+    }
+
+    StringBuilder sb = new StringBuilder();
+    List<RecordedFrame> frames = stackTrace.getFrames();
+    for (int i = 0; i < Math.min(MAX_FRAMES, frames.size()); i++) {
+      RecordedFrame frame = frames.get(i);
+      sb.append("\n\tat ").append(frame.getMethod().getType().getName())
+              .append('.').append(frame.getMethod().getName())
+              .append(':').append(frame.getLineNumber());
+    }
+    return sb.toString();
+  }
+
+  // 닫힌 모니터를 가리키지 않도록 게이지도 함께 내린다.
+  @Override
+  public void close() {
+    stream.close();
+    metricsRegistry.unregisterGauge(GAUGE_NAME, gauge);
+  }
+
+  private static class GlobalHolder {
+
+    private static final PinningMonitor INSTANCE = new PinningMonitor(DEFAULT_THRESHOLD, MetricsRegistry.global());
+  }
+}
@@ -0,0 +1,94 @@
+package org.example.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// @MyTransactional 메서드 하나의 트랜잭션 단계별 지연 시간과 결과 카운터
+public class TransactionMetrics {
+
+  private final String name;
+
+  private final Histogram acquire = new Histogram(); // 풀에서 커넥션을 얻기까지 기다린 시간
+  private final Histogram begin = new Histogram(); // 커넥션 획득을 뺀 트랜잭션 시작 시간
+  private final Histogram body = new Histogram();
+  private final Histogram commit = new Histogram();
+  private final Histogram rollback = new Histogram();
+
+  private final LongAdder commits = new LongAdder();
+  private final LongAdder rollbacks = new LongAdder();
+  private final LongAdder retries = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+
+  public TransactionMetrics(String name) {
+    this.name = name;
+  }
+
+  public void recordAcquire(long nanos) {
+    acquire.record(nanos);
+  }
+
+  public void recordBegin(long nanos) {
+    begin.record(nanos);
+  }
+
+  public void recordBody(long nanos) {
+    body.record(nanos);
+  }
+
+  public void recordCommit(long nanos) {
+    commit.record(nanos);
+    commits.increment();
+  }
+
+  public void recordRollback(long nanos) {
+    rollback.record(nanos);
+    rollbacks.increment();
+  }
+
+  public void recordRetry() {
+    retries.increment();
+  }
+
+  public void recordError() {
+    errors.increment();
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Histogram getAcquire() {
+    return acquire;
+  }
+
+  public Histogram getBegin() {
+    return begin;
+  }
+
+  public Histogram getBody() {
+    return body;
+  }
+
+  public Histogram getCommit() {
+    return commit;
+  }
+
+  public Histogram getRollback() {
+    return rollback;
+  }
+
+  public long getCommitCount() {
+    return commits.sum();
+  }
+
+  public long getRollbackCount() {
+    return rollbacks.sum();
+  }
+
+  public long getRetryCount() {
+    return retries.sum();
+  }
+
+  public long getErrorCount() {
+    return errors.sum();
+  }
+}
@@ -0,0 +1,116 @@
+package org.example.transactional;
+
+import org.example.db.ConnectionLeakDetector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ConnectionHolder {
+
+  private static final Logger logger = LoggerFactory.getLogger(ConnectionHolder.class);
+
+  private final Connection connection;
+  private final boolean managedCommit;
+  private final boolean readOnly;
+  private boolean rollbackOnly;
+  private boolean hasDeadline;
+  private long deadlineNanos;
+  private List<TransactionSynchronization> synchronizations;
+  private ConnectionLeakDetector.Lease lease;
+  private long acquireNanos;
+
+  public ConnectionHolder(Connection connection, boolean managedCommit, boolean readOnly) {
+    this.connection = connection;
+    this.managedCommit = managedCommit;
+    this.readOnly = readOnly;
+  }
+
+  public Connection getConnection() {
+    return connection;
+  }
+
+  public ConnectionLeakDetector.Lease getLease() {
+    return lease;
+  }
+
+  public void setLease(ConnectionLeakDetector.Lease lease) {
+    this.lease = lease;
+  }
+
+  // 풀에서 커넥션을 얻기까지 기다린 시간. 지연 커넥션은 처음 SQL을 실행할 때 기록된다.
+  public long getAcquireNanos() {
+    return acquireNanos;
+  }
+
+  public void setAcquireNanos(long acquireNanos) {
+    this.acquireNanos = acquireNanos;
+  }
+
+  // false면 autocommit 상태 그대로 실행한 읽기 전용 트랜잭션이라 커밋/롤백할 것이 없다.
+  public boolean isManagedCommit() {
+    return managedCommit;
+  }
+
+  // 읽기 전용 트랜잭션이 연 커넥션이면 쓰기 트랜잭션은 여기에 참여하지 않고 보류시킨다.
+  public boolean isReadOnly() {
+    return readOnly;
+  }
+
+  // 참여한 트랜잭션에서 예외가 나면 바깥 트랜잭션이 커밋하지 못하도록 표시한다.
+  public boolean isRollbackOnly() {
+    return rollbackOnly;
+  }
+
+  public void setRollbackOnly() {
+    this.rollbackOnly = true;
+  }
+
+  public void setTimeoutInSeconds(int seconds) {
+    this.deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+    this.hasDeadline = true;
+  }
+
+  public boolean hasTimeout() {
+    return hasDeadline;
+  }
+
+  public boolean isDeadlinePassed() {
+    return hasDeadline && deadlineNanos - System.nanoTime() <= 0;
+  }
+
+  // 남은 시간을 초 단위로 올림해서 반환한다. JDBC 쿼리 타임아웃이 초 단위이기 때문이다.
+  public int getTimeToLiveInSeconds() {
+    long remaining = deadlineNanos - System.nanoTime();
+    if (remaining <= 0) {
+      throw new TransactionTimedOutException("transaction timed out: deadline passed " + TimeUnit.NANOSECONDS.toMillis(-remaining) + "ms ago");
+    }
+    return (int) ((remaining + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+  }
+
+  // 동기화는 트랜잭션(홀더)에 묶여 있으므로 REQUIRES_NEW로 보류되면 함께 보류된다.
+  public void registerSynchronization(TransactionSynchronization synchronization) {
+    if (synchronizations == null) {
+      synchronizations = new ArrayList<>(2);
+    }
+    synchronizations.add(synchronization);
+  }
+
+  public List<TransactionSynchronization> getSynchronizations() {
+    return synchronizations == null ? Collections.emptyList() : synchronizations;
+  }
+
+  void triggerAfterCompletion(boolean committed) {
+    for (TransactionSynchronization synchronization : getSynchronizations()) {
+      try {
+        synchronization.afterCompletion(committed);
+      } catch (RuntimeException e) {
+        logger.error("afterCompletion error", e);
+      }
+    }
+  }
+}
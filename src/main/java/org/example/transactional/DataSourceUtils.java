@@ -0,0 +1,54 @@
+package org.example.transactional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class DataSourceUtils {
+
+  private static final Logger logger = LoggerFactory.getLogger(DataSourceUtils.class);
+
+  private DataSourceUtils() {
+  }
+
+  // 트랜잭션이 진행 중이면 현재 스레드에 바인딩된 커넥션을, 아니면 새 커넥션을 반환한다.
+  public static Connection getConnection(DataSource dataSource) throws SQLException {
+    ConnectionHolder holder = TransactionSynchronizationManager.getResource(dataSource);
+    if (holder != null) {
+      return holder.getConnection();
+    }
+    return dataSource.getConnection();
+  }
+
+  // 트랜잭션 제한 시간이 있으면 남은 시간을 쿼리 타임아웃으로 건다. 이미 지났으면 실행하지 않고 예외를 던진다.
+  // 캐시된 Statement는 트랜잭션을 넘나들며 재사용되므로 제한 시간이 없을 때도 타임아웃을 항상 다시 설정한다.
+  public static void applyTransactionTimeout(Statement stmt, Connection con, DataSource dataSource) throws SQLException {
+    ConnectionHolder holder = TransactionSynchronizationManager.getResource(dataSource);
+    if (holder != null && holder.hasTimeout() && holder.getConnection() == con) {
+      stmt.setQueryTimeout(holder.getTimeToLiveInSeconds());
+    } else {
+      stmt.setQueryTimeout(0);
+    }
+  }
+
+  // 트랜잭션 커넥션은 트랜잭션 매니저가 정리하므로 여기서 닫지 않는다.
+  public static void releaseConnection(Connection con, DataSource dataSource) {
+    if (con == null) {
+      return;
+    }
+    ConnectionHolder holder = TransactionSynchronizationManager.getResource(dataSource);
+    if (holder != null && holder.getConnection() == con) {
+      return;
+    }
+
+    try {
+      con.close();
+    } catch (SQLException e) {
+      logger.error("error", e);
+    }
+  }
+}
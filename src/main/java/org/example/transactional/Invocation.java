@@ -0,0 +1,6 @@
+package org.example.transactional;
+
+public interface Invocation {
+
+  Object proceed() throws Throwable;
+}
@@ -0,0 +1,238 @@
+package org.example.transactional;
+
+import org.example.db.ConnectionLeakDetector;
+import org.example.db.LazyConnectionDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+
+public class MyTransactionManager {
+
+  private static final Logger logger = LoggerFactory.getLogger(MyTransactionManager.class);
+
+  private final DataSource dataSource;
+  private final DataSource readOnlyDataSource;
+  private final ConnectionLeakDetector leakDetector; // null이면 추적하지 않는다.
+
+  // 읽기 전용 커넥션의 격리 수준이 READ COMMITTED 이하면 트랜잭션을 열지 않아도 읽는 결과가 같다.
+  private volatile Boolean readOnlyAutoCommit;
+
+  public MyTransactionManager(DataSource dataSource) {
+    this(dataSource, dataSource);
+  }
+
+  public MyTransactionManager(DataSource dataSource, DataSource readOnlyDataSource) {
+    this(dataSource, readOnlyDataSource, null);
+  }
+
+  public MyTransactionManager(DataSource dataSource, DataSource readOnlyDataSource, ConnectionLeakDetector leakDetector) {
+    this.dataSource = dataSource;
+    this.readOnlyDataSource = readOnlyDataSource;
+    this.leakDetector = leakDetector;
+  }
+
+  public DataSource getDataSource() {
+    return dataSource;
+  }
+
+  public TransactionStatus getTransaction() throws SQLException {
+    return getTransaction(TransactionAttribute.DEFAULT);
+  }
+
+  public TransactionStatus getTransaction(TransactionAttribute attribute) throws SQLException {
+    ConnectionHolder existing = TransactionSynchronizationManager.getResource(dataSource);
+    if (existing == null) {
+      return startTransaction(attribute, null);
+    }
+
+    // 읽기 전용 트랜잭션의 커넥션은 읽기 풀에서 왔고 대개 autocommit이라, 쓰기가 참여하면 롤백할 수 없다.
+    if (existing.isReadOnly() && !attribute.isReadOnly()) {
+      return suspendAndStart(attribute, existing);
+    }
+
+    switch (attribute.getPropagation()) {
+      case REQUIRES_NEW:
+        return suspendAndStart(attribute, existing);
+      case NESTED:
+        if (existing.isManagedCommit()) {
+          Savepoint savepoint = existing.getConnection().setSavepoint();
+          return new TransactionStatus(existing, attribute, false, savepoint, null);
+        }
+        // autocommit 상태의 읽기 전용 트랜잭션에는 세이브포인트를 만들 수 없으므로 그냥 참여한다. (읽기끼리만 해당)
+        return new TransactionStatus(existing, attribute, false, null, null);
+      default:
+        // 같은 커넥션으로 참여하므로 추가 커넥션도, 추가 왕복도 없다.
+        return new TransactionStatus(existing, attribute, false, null, null);
+    }
+  }
+
+  private TransactionStatus suspendAndStart(TransactionAttribute attribute, ConnectionHolder existing) throws SQLException {
+    TransactionSynchronizationManager.unbindResource(dataSource); // 바깥 트랜잭션 보류
+    try {
+      return startTransaction(attribute, existing);
+    } catch (SQLException | RuntimeException e) {
+      TransactionSynchronizationManager.bindResource(dataSource, existing);
+      throw e;
+    }
+  }
+
+  public void commit(TransactionStatus status) throws SQLException {
+    Connection con = status.getConnection();
+
+    if (status.getSavepoint() != null) {
+      con.releaseSavepoint(status.getSavepoint());
+      return;
+    }
+    if (!status.isNewTransaction()) {
+      return; // 참여한 트랜잭션은 시작한 쪽에서 커밋한다.
+    }
+
+    ConnectionHolder holder = status.getConnectionHolder();
+    boolean committed = false;
+    try {
+      if (holder.isRollbackOnly()) {
+        rollbackQuietly(con);
+        throw new IllegalStateException("transaction rolled back because it has been marked as rollback-only");
+      }
+      if (holder.isDeadlinePassed()) { // SQL 없이 오래 걸린 경우도 커밋하지 않는다.
+        rollbackQuietly(con);
+        throw new TransactionTimedOutException("transaction timed out: " + status.getAttribute().getName());
+      }
+      if (holder.isManagedCommit()) {
+        con.commit();
+      }
+      committed = true;
+    } catch (SQLException e) {
+      rollbackQuietly(con);
+      throw e;
+    } finally {
+      cleanup(status, committed);
+    }
+  }
+
+  public void rollback(TransactionStatus status) {
+    Connection con = status.getConnection();
+
+    if (status.getSavepoint() != null) {
+      try {
+        con.rollback(status.getSavepoint()); // 세이브포인트까지만 롤백하고 바깥 트랜잭션은 계속된다.
+        con.releaseSavepoint(status.getSavepoint());
+      } catch (SQLException e) {
+        logger.error("rollback to savepoint error", e);
+        status.getConnectionHolder().setRollbackOnly();
+      }
+      return;
+    }
+    if (!status.isNewTransaction()) {
+      status.getConnectionHolder().setRollbackOnly();
+      return;
+    }
+
+    try {
+      if (status.getConnectionHolder().isManagedCommit()) {
+        rollbackQuietly(con);
+      }
+    } finally {
+      cleanup(status, false);
+    }
+  }
+
+  private TransactionStatus startTransaction(TransactionAttribute attribute, ConnectionHolder suspendedHolder) throws SQLException {
+    boolean readOnly = attribute.isReadOnly();
+    long acquireStart = System.nanoTime();
+    Connection con = readOnly ? readOnlyDataSource.getConnection() : dataSource.getConnection();
+    long acquireNanos = System.nanoTime() - acquireStart;
+
+    ConnectionHolder holder = null;
+    try {
+      boolean managedCommit = true;
+      if (readOnly) {
+        if (readOnlyDataSource == dataSource) {
+          con.setReadOnly(true); // 복제본 풀은 생성 시점부터 읽기 전용이다.
+        }
+        managedCommit = !isReadOnlyAutoCommit(con);
+      }
+
+      if (managedCommit) {
+        con.setAutoCommit(false); // 트랜잭션 시작
+      }
+      holder = new ConnectionHolder(con, managedCommit, readOnly);
+      // 지연 커넥션은 여기서 프록시만 받았으므로, 대기 시간과 점유 시간은 처음 SQL을 실행해 실제로 빌릴 때부터 잰다.
+      ConnectionHolder borrowed = holder;
+      if (!LazyConnectionDataSource.setBorrowListener(con, nanos -> connectionBorrowed(borrowed, attribute, nanos))) {
+        connectionBorrowed(holder, attribute, acquireNanos);
+      }
+      if (attribute.getTimeout() > 0) {
+        holder.setTimeoutInSeconds(attribute.getTimeout());
+      }
+      // 리포지토리는 dataSource만 알고 있으므로 읽기 전용 커넥션도 같은 키로 바인딩한다.
+      TransactionSynchronizationManager.bindResource(dataSource, holder);
+    } catch (SQLException | RuntimeException e) {
+      release(con, readOnly, holder == null ? null : holder.getLease());
+      throw e;
+    }
+    return new TransactionStatus(holder, attribute, true, null, suspendedHolder);
+  }
+
+  private void connectionBorrowed(ConnectionHolder holder, TransactionAttribute attribute, long acquireNanos) {
+    holder.setAcquireNanos(acquireNanos);
+    if (leakDetector != null) {
+      holder.setLease(leakDetector.acquired(holder.getConnection(), attribute.getName()));
+    }
+  }
+
+  private boolean isReadOnlyAutoCommit(Connection con) throws SQLException {
+    Boolean autoCommit = readOnlyAutoCommit;
+    if (autoCommit == null) {
+      autoCommit = con.getTransactionIsolation() <= Connection.TRANSACTION_READ_COMMITTED;
+      readOnlyAutoCommit = autoCommit;
+    }
+    return autoCommit;
+  }
+
+  private void rollbackQuietly(Connection con) {
+    try {
+      con.rollback();
+    } catch (SQLException e) {
+      logger.error("rollback error", e);
+    }
+  }
+
+  private void cleanup(TransactionStatus status, boolean committed) {
+    TransactionSynchronizationManager.unbindResource(dataSource);
+    release(status.getConnection(), status.getAttribute().isReadOnly(), status.getConnectionHolder().getLease());
+    status.getConnectionHolder().triggerAfterCompletion(committed);
+
+    if (status.getSuspendedHolder() != null) {
+      TransactionSynchronizationManager.bindResource(dataSource, status.getSuspendedHolder()); // 보류했던 트랜잭션 재개
+    }
+  }
+
+  // 상태 복구에 실패해도 커넥션은 반드시 닫는다. 실패는 삼키지 않고 누수 감지기에 메서드별로 남긴다.
+  private void release(Connection con, boolean readOnly, ConnectionLeakDetector.Lease lease) {
+    try {
+      try {
+        con.setAutoCommit(true); // 커넥션 풀 고려
+        if (readOnly && readOnlyDataSource == dataSource) {
+          con.setReadOnly(false);
+        }
+      } finally {
+        con.close();
+      }
+    } catch (SQLException e) {
+      if (lease != null) {
+        leakDetector.releaseFailed(lease, e);
+      } else {
+        logger.error("connection release error", e);
+      }
+    } finally {
+      if (lease != null) {
+        leakDetector.released(lease);
+      }
+    }
+  }
+}
@@ -5,4 +5,18 @@ import java.lang.annotation.RetentionPolicy;
 
 @Retention(RetentionPolicy.RUNTIME)
 public @interface MyTransactional {
+
+  // true면 읽기 전용 풀(복제본)의 커넥션을 사용한다.
+  boolean readOnly() default false;
+
+  Propagation propagation() default Propagation.REQUIRED;
+
+  // 데드락/직렬화 실패(SQLState 40xxx)로 롤백되면 다시 시도할 횟수
+  int maxRetries() default 0;
+
+  // 재시도 대기 시간의 기준값. 시도할 때마다 두 배까지 늘어나는 범위에서 무작위로 기다린다.
+  long retryBackoffMillis() default 20;
+
+  // 트랜잭션 제한 시간(초). 남은 시간이 각 SQL의 쿼리 타임아웃이 되고, 넘기면 롤백 후 커넥션을 반납한다. -1이면 제한 없음
+  int timeout() default -1;
 }
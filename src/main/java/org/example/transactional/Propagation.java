@@ -0,0 +1,13 @@
+package org.example.transactional;
+
+public enum Propagation {
+
+  // 진행 중인 트랜잭션이 있으면 참여하고, 없으면 새로 시작한다.
+  REQUIRED,
+
+  // 진행 중인 트랜잭션을 보류하고 항상 새 커넥션으로 트랜잭션을 시작한다.
+  REQUIRES_NEW,
+
+  // 진행 중인 트랜잭션이 있으면 세이브포인트를 만들어 그 지점까지만 롤백한다.
+  NESTED
+}
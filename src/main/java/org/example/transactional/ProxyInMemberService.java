@@ -1,15 +1,18 @@
 package org.example.transactional;
 
 import org.example.member.MemberServiceV2;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Proxy;
-import java.sql.Connection;
 
 public class ProxyInMemberService {
 
-  private static final Logger logger = LoggerFactory.getLogger(ProxyInMemberService.class);
+  private final MyTransactionManager transactionManager;
+
+  public ProxyInMemberService(DataSource dataSource) {
+    this.transactionManager = new MyTransactionManager(dataSource);
+  }
 
   public MemberServiceV2 getMemberServiceProxy(MemberServiceV2 target) {
 
@@ -18,33 +21,23 @@ public class ProxyInMemberService {
             this.getClass().getClassLoader(),
             new Class[]{MemberServiceV2.class},
             (proxy, method, args) -> {
-              Connection con = (Connection) args[3];
+              TransactionAttribute attribute = TransactionAttributeSource.getAttribute(method, target.getClass());
+              if (attribute == null) {
+                return method.invoke(target, args);
+              }
 
+              TransactionStatus status = transactionManager.getTransaction(attribute);
+
+              Object result;
               try {
-                con.setAutoCommit(false);
-
-                method.invoke(target, args);
-                con.commit();
-              } catch (Exception e) {
-                con.rollback();
-                Throwable cause = e.getCause();
-                throw new IllegalStateException(cause.getMessage());
-              } finally {
-                release(con);
+                result = method.invoke(target, args);
+              } catch (InvocationTargetException e) {
+                transactionManager.rollback(status);
+                throw new IllegalStateException(e.getCause().getMessage());
               }
+              transactionManager.commit(status);
 
-              return null;
+              return result;
             });
   }
-
-  private void release(Connection con) {
-    if (con != null) {
-      try {
-        con.setAutoCommit(true); // 커넥션 풀 고려
-        con.close();
-      } catch (Exception e) {
-        logger.error("error", e);
-      }
-    }
-  }
 }
@@ -0,0 +1,7 @@
+package org.example.transactional;
+
+// 타겟을 부르는 방법. 프록시마다 상수로 두고 호출마다 달라지는 값은 context, proxy, args로 넘겨서 호출마다 람다를 만들지 않는다.
+public interface TargetInvoker {
+
+  Object invoke(Object context, Object proxy, Object[] args) throws Throwable;
+}
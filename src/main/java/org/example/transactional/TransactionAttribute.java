@@ -0,0 +1,112 @@
+package org.example.transactional;
+
+import org.example.metrics.MetricsRegistry;
+import org.example.metrics.TransactionMetrics;
+
+import java.lang.reflect.Method;
+import java.util.StringJoiner;
+
+public class TransactionAttribute {
+
+  public static final TransactionAttribute DEFAULT = new TransactionAttribute("default", false, Propagation.REQUIRED, 0, 0, -1);
+
+  private final String name;
+  private final boolean readOnly;
+  private final Propagation propagation;
+  private final int maxRetries;
+  private final long retryBackoffMillis;
+  private final int timeout;
+  private volatile CachedMetrics metrics; // 인터셉터가 호출마다 레지스트리 맵을 찾지 않도록 기억해 둔다.
+
+  private TransactionAttribute(String name, boolean readOnly, Propagation propagation, int maxRetries, long retryBackoffMillis,
+                               int timeout) {
+    this.name = name;
+    this.readOnly = readOnly;
+    this.propagation = propagation;
+    this.maxRetries = maxRetries;
+    this.retryBackoffMillis = retryBackoffMillis;
+    this.timeout = timeout;
+  }
+
+  // 애너테이션 프로세서가 생성한 프록시가 상수로 만들 때 사용한다. 이름은 name(Method)와 같은 형식이어야 한다.
+  public static TransactionAttribute of(String name, boolean readOnly, Propagation propagation, int maxRetries,
+                                        long retryBackoffMillis, int timeout) {
+    return new TransactionAttribute(name, readOnly, propagation, maxRetries, retryBackoffMillis, timeout);
+  }
+
+  public static TransactionAttribute of(Method method, MyTransactional annotation) {
+    return new TransactionAttribute(
+            name(method),
+            annotation.readOnly(),
+            annotation.propagation(),
+            annotation.maxRetries(),
+            annotation.retryBackoffMillis(),
+            annotation.timeout());
+  }
+
+  // 오버로드와 다른 패키지의 같은 이름 클래스가 섞이지 않도록 전체 클래스 이름과 파라미터 타입을 넣는다.
+  // 예: org.example.member.MemberServiceV2Impl.accountTransfer(java.lang.String,java.lang.String,int)
+  public static String name(Method method) {
+    StringJoiner parameters = new StringJoiner(",", "(", ")");
+    for (Class<?> type : method.getParameterTypes()) {
+      parameters.add(type.getTypeName());
+    }
+    return method.getDeclaringClass().getName() + "." + method.getName() + parameters;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  // 레지스트리가 바뀌지 않는 한 처음 찾은 메트릭을 그대로 쓴다.
+  public TransactionMetrics getMetrics(MetricsRegistry registry) {
+    CachedMetrics cached = metrics;
+    if (cached == null || cached.registry != registry) {
+      cached = new CachedMetrics(registry, registry.transactionMetrics(name));
+      metrics = cached;
+    }
+    return cached.metrics;
+  }
+
+  public boolean isReadOnly() {
+    return readOnly;
+  }
+
+  public Propagation getPropagation() {
+    return propagation;
+  }
+
+  public int getMaxRetries() {
+    return maxRetries;
+  }
+
+  public long getRetryBackoffMillis() {
+    return retryBackoffMillis;
+  }
+
+  public int getTimeout() {
+    return timeout;
+  }
+
+  @Override
+  public String toString() {
+    return "TransactionAttribute{" +
+            "name='" + name + '\'' +
+            ", readOnly=" + readOnly +
+            ", propagation=" + propagation +
+            ", maxRetries=" + maxRetries +
+            ", timeout=" + timeout +
+            '}';
+  }
+
+  private static class CachedMetrics {
+
+    private final MetricsRegistry registry;
+    private final TransactionMetrics metrics;
+
+    private CachedMetrics(MetricsRegistry registry, TransactionMetrics metrics) {
+      this.registry = registry;
+      this.metrics = metrics;
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package org.example.transactional;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class TransactionAttributeSource {
+
+  // 타입마다 한 번만 애노테이션을 스캔하고, 이후에는 불변 맵을 동시에 읽기만 한다.
+  private static final ClassValue<Map<Method, TransactionAttribute>> attributeCache = new ClassValue<>() {
+    @Override
+    protected Map<Method, TransactionAttribute> computeValue(Class<?> type) {
+      return scan(type);
+    }
+  };
+
+  private TransactionAttributeSource() {
+  }
+
+  public static boolean isTransactional(Class<?> targetClass) {
+    return !attributeCache.get(targetClass).isEmpty();
+  }
+
+  // @MyTransactional이 없는 메서드는 null을 반환한다.
+  public static TransactionAttribute getAttribute(Method method, Class<?> targetClass) {
+    Map<Method, TransactionAttribute> attributes = attributeCache.get(targetClass);
+    TransactionAttribute attribute = attributes.get(method);
+    if (attribute != null || method.getDeclaringClass() == targetClass) {
+      return attribute;
+    }
+    return attributes.get(findTargetMethod(method, targetClass));
+  }
+
+  private static Map<Method, TransactionAttribute> scan(Class<?> targetClass) {
+    Map<Method, TransactionAttribute> attributes = new HashMap<>();
+
+    for (Method method : targetClass.getMethods()) {
+      MyTransactional annotation = findAnnotation(method, targetClass);
+      if (annotation != null) {
+        attributes.put(method, TransactionAttribute.of(method, annotation));
+      }
+    }
+    return Collections.unmodifiableMap(attributes);
+  }
+
+  // 구현 클래스의 메서드를 먼저 보고, 없으면 인터페이스에 선언된 메서드를 본다.
+  private static MyTransactional findAnnotation(Method method, Class<?> targetClass) {
+    MyTransactional annotation = method.getAnnotation(MyTransactional.class);
+    if (annotation != null) {
+      return annotation;
+    }
+
+    for (Class<?> type = targetClass; type != null; type = type.getSuperclass()) {
+      for (Class<?> ifc : type.getInterfaces()) {
+        try {
+          annotation = ifc.getMethod(method.getName(), method.getParameterTypes()).getAnnotation(MyTransactional.class);
+          if (annotation != null) {
+            return annotation;
+          }
+        } catch (NoSuchMethodException ignored) {
+        }
+      }
+    }
+    return null;
+  }
+
+  private static Method findTargetMethod(Method method, Class<?> targetClass) {
+    try {
+      return targetClass.getMethod(method.getName(), method.getParameterTypes());
+    } catch (NoSuchMethodException e) {
+      return method;
+    }
+  }
+}
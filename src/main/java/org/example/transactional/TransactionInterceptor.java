@@ -0,0 +1,131 @@
+package org.example.transactional;
+
+import org.example.metrics.MetricsRegistry;
+import org.example.metrics.TransactionMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class TransactionInterceptor {
+
+  private static final Logger logger = LoggerFactory.getLogger(TransactionInterceptor.class);
+
+  private static final long MAX_BACKOFF_MILLIS = 1000;
+  private static final TargetInvoker INVOCATION = (context, proxy, args) -> ((Invocation) context).proceed();
+
+  private final MyTransactionManager transactionManager;
+  private final MetricsRegistry metricsRegistry;
+
+  public TransactionInterceptor(MyTransactionManager transactionManager) {
+    this(transactionManager, MetricsRegistry.global());
+  }
+
+  public TransactionInterceptor(MyTransactionManager transactionManager, MetricsRegistry metricsRegistry) {
+    this.transactionManager = transactionManager;
+    this.metricsRegistry = metricsRegistry;
+  }
+
+  public Object invoke(TransactionAttribute attribute, Invocation invocation) throws Throwable {
+    return invoke(attribute, INVOCATION, invocation, null, null);
+  }
+
+  // 생성된 프록시는 메서드마다 상수 invoker를 두고 프록시와 인자만 넘기므로 호출마다 람다를 만들지 않는다.
+  public Object invoke(TransactionAttribute attribute, TargetInvoker invoker, Object context, Object proxy, Object[] args) throws Throwable {
+    TransactionMetrics metrics = attribute.getMetrics(metricsRegistry);
+
+    for (int attempt = 0; ; attempt++) {
+      // 커넥션은 타겟 호출 직전에 획득하고, 커밋/롤백 직후 바로 반납한다.
+      long start = System.nanoTime();
+      TransactionStatus status;
+      try {
+        status = transactionManager.getTransaction(attribute);
+      } catch (Throwable e) {
+        metrics.recordError(); // 풀 고갈로 인한 타임아웃도 여기서 집계된다.
+        throw e;
+      }
+      long begun = System.nanoTime();
+      long acquiredAtBegin = status.getAcquireNanos(); // 지연 커넥션은 아직 빌리지 않았으므로 0
+      metrics.recordBegin(begun - start - acquiredAtBegin);
+
+      Object result;
+      try {
+        result = invoker.invoke(context, proxy, args);
+      } catch (Throwable e) {
+        long bodyEnd = System.nanoTime();
+        recordAcquireAndBody(metrics, status, acquiredAtBegin, bodyEnd - begun);
+        transactionManager.rollback(status);
+        metrics.recordRollback(System.nanoTime() - bodyEnd);
+        if (canRetry(attribute, status, e, attempt)) {
+          metrics.recordRetry();
+          backoff(attribute, attempt, e);
+          continue;
+        }
+        metrics.recordError();
+        throw translate(status, e);
+      }
+
+      long bodyEnd = System.nanoTime();
+      recordAcquireAndBody(metrics, status, acquiredAtBegin, bodyEnd - begun);
+      try {
+        transactionManager.commit(status);
+        metrics.recordCommit(System.nanoTime() - bodyEnd);
+      } catch (Throwable e) {
+        metrics.recordRollback(System.nanoTime() - bodyEnd);
+        if (e instanceof SQLException && canRetry(attribute, status, e, attempt)) {
+          metrics.recordRetry();
+          backoff(attribute, attempt, e);
+          continue;
+        }
+        metrics.recordError();
+        throw e;
+      }
+      return result;
+    }
+  }
+
+  // 지연 커넥션은 본문에서 처음 SQL을 실행할 때 풀에서 빌리므로, 그 대기 시간은 본문이 아니라 획득 시간으로 센다.
+  private static void recordAcquireAndBody(TransactionMetrics metrics, TransactionStatus status, long acquiredAtBegin, long bodyNanos) {
+    long acquireNanos = status.getAcquireNanos();
+    metrics.recordAcquire(acquireNanos);
+    metrics.recordBody(bodyNanos - (acquireNanos - acquiredAtBegin));
+  }
+
+  // 제한 시간을 넘겨 쿼리가 취소된 경우는 원인 SQLException 대신 TransactionTimedOutException으로 알린다.
+  private RuntimeException translate(TransactionStatus status, Throwable e) {
+    if (e instanceof TransactionTimedOutException) {
+      return (TransactionTimedOutException) e;
+    }
+    if (status.getConnectionHolder().isDeadlinePassed()) {
+      return new TransactionTimedOutException("transaction timed out: " + status.getAttribute().getName(), e);
+    }
+    return new IllegalStateException(e.getMessage(), e);
+  }
+
+  // 물리 트랜잭션을 직접 시작한 호출만 재시도한다. 참여한 트랜잭션은 바깥에서 재시도한다.
+  private boolean canRetry(TransactionAttribute attribute, TransactionStatus status, Throwable e, int attempt) {
+    return status.isNewTransaction() && attempt < attribute.getMaxRetries() && isRetryable(e);
+  }
+
+  // SQLState 40xxx: 데드락(40001, 40P01), 직렬화 실패 등 트랜잭션 롤백 클래스
+  static boolean isRetryable(Throwable e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof SQLException) {
+        String sqlState = ((SQLException) cause).getSQLState();
+        if (sqlState != null && sqlState.startsWith("40")) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  // full jitter: 0 ~ base * 2^attempt 사이에서 무작위로 기다려 재시도가 한꺼번에 몰리지 않게 한다.
+  private void backoff(TransactionAttribute attribute, int attempt, Throwable e) throws InterruptedException {
+    long bound = Math.min(MAX_BACKOFF_MILLIS, attribute.getRetryBackoffMillis() << Math.min(attempt, 20));
+    long sleepMillis = ThreadLocalRandom.current().nextLong(bound + 1);
+    logger.warn("retry transaction {} attempt={} after {}ms: {}", attribute.getName(), attempt + 1, sleepMillis, e.getMessage());
+    Thread.sleep(sleepMillis);
+  }
+}
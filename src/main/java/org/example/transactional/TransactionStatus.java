@@ -0,0 +1,53 @@
+package org.example.transactional;
+
+import java.sql.Connection;
+import java.sql.Savepoint;
+
+public class TransactionStatus {
+
+  private final ConnectionHolder connectionHolder;
+  private final TransactionAttribute attribute;
+  private final boolean newTransaction;
+  private final Savepoint savepoint;
+  private final ConnectionHolder suspendedHolder;
+
+  public TransactionStatus(ConnectionHolder connectionHolder, TransactionAttribute attribute, boolean newTransaction,
+                           Savepoint savepoint, ConnectionHolder suspendedHolder) {
+    this.connectionHolder = connectionHolder;
+    this.attribute = attribute;
+    this.newTransaction = newTransaction;
+    this.savepoint = savepoint;
+    this.suspendedHolder = suspendedHolder;
+  }
+
+  public Connection getConnection() {
+    return connectionHolder.getConnection();
+  }
+
+  public ConnectionHolder getConnectionHolder() {
+    return connectionHolder;
+  }
+
+  public TransactionAttribute getAttribute() {
+    return attribute;
+  }
+
+  // 이 호출이 물리 트랜잭션을 시작했는지(커밋/롤백과 커넥션 반납 책임이 있는지)
+  public boolean isNewTransaction() {
+    return newTransaction;
+  }
+
+  public Savepoint getSavepoint() {
+    return savepoint;
+  }
+
+  // REQUIRES_NEW로 보류한 바깥 트랜잭션. 끝나면 다시 바인딩한다.
+  public ConnectionHolder getSuspendedHolder() {
+    return suspendedHolder;
+  }
+
+  // 풀에서 커넥션을 얻기까지 기다린 시간. 지연 커넥션은 아직 빌리지 않았으면 0이고, 참여한 트랜잭션은 항상 0이다.
+  public long getAcquireNanos() {
+    return newTransaction ? connectionHolder.getAcquireNanos() : 0;
+  }
+}
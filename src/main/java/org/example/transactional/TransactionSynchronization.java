@@ -0,0 +1,7 @@
+package org.example.transactional;
+
+public interface TransactionSynchronization {
+
+  // 물리 트랜잭션이 끝나고 커넥션을 반납한 뒤에 호출된다.
+  void afterCompletion(boolean committed);
+}
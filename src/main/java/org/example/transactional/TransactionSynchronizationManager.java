@@ -0,0 +1,37 @@
+package org.example.transactional;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+public class TransactionSynchronizationManager {
+
+  // 스레드(가상 스레드 포함)마다 DataSource 별로 트랜잭션 커넥션을 보관한다.
+  private static final ThreadLocal<Map<DataSource, ConnectionHolder>> resources = ThreadLocal.withInitial(HashMap::new);
+
+  private TransactionSynchronizationManager() {
+  }
+
+  public static ConnectionHolder getResource(DataSource dataSource) {
+    return resources.get().get(dataSource);
+  }
+
+  public static boolean hasResource(DataSource dataSource) {
+    return resources.get().containsKey(dataSource);
+  }
+
+  public static void bindResource(DataSource dataSource, ConnectionHolder holder) {
+    ConnectionHolder oldHolder = resources.get().putIfAbsent(dataSource, holder);
+    if (oldHolder != null) {
+      throw new IllegalStateException("already bound connection for dataSource = " + dataSource);
+    }
+  }
+
+  public static ConnectionHolder unbindResource(DataSource dataSource) {
+    ConnectionHolder holder = resources.get().remove(dataSource);
+    if (holder == null) {
+      throw new IllegalStateException("no bound connection for dataSource = " + dataSource);
+    }
+    return holder;
+  }
+}
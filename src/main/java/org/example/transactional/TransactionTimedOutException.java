@@ -0,0 +1,13 @@
+package org.example.transactional;
+
+// @MyTransactional(timeout)을 넘긴 트랜잭션. 이미 롤백되고 커넥션도 반납된 상태로 전달된다.
+public class TransactionTimedOutException extends IllegalStateException {
+
+  public TransactionTimedOutException(String message) {
+    super(message);
+  }
+
+  public TransactionTimedOutException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
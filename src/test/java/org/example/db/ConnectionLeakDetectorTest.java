@@ -0,0 +1,136 @@
+package org.example.db;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.member.MemberRepositoryV1;
+import org.example.transactional.MyTransactionManager;
+import org.example.transactional.TransactionStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class ConnectionLeakDetectorTest {
+
+  private HikariDataSource dataSource;
+  private ConnectionLeakDetector leakDetector;
+  private MyTransactionManager transactionManager;
+
+  @BeforeEach
+  void setUp() {
+    dataSource = DBConnectionUtil.getDataSource();
+    leakDetector = new ConnectionLeakDetector(Duration.ofMillis(100), 1);
+    transactionManager = new MyTransactionManager(dataSource, dataSource, leakDetector);
+  }
+
+  @AfterEach
+  void tearDown() {
+    leakDetector.close();
+  }
+
+  @Test
+  @DisplayName("임계값보다 오래 잡고 있던 커넥션을 메서드별로 보고한다")
+  void longHold() throws Exception {
+    TransactionStatus status = transactionManager.getTransaction();
+    Thread.sleep(150);
+    leakDetector.scan();
+    transactionManager.commit(status);
+
+    List<ConnectionLeakDetector.MethodStats> offenders = leakDetector.worstOffenders(5);
+    assertAll(
+            () -> assertThat(offenders).hasSize(1),
+            () -> assertThat(offenders.get(0).getName()).isEqualTo("default"),
+            () -> assertThat(offenders.get(0).getLongHolds()).isEqualTo(1),
+            () -> assertThat(offenders.get(0).getMaxHoldNanos()).isGreaterThanOrEqualTo(150_000_000L),
+            () -> assertThat(leakDetector.getActiveCount()).isZero(),
+            () -> assertThat(leakDetector.report(5)).contains("longHolds=1").contains("\tat org.example.db.ConnectionLeakDetectorTest.longHold")
+    );
+  }
+
+  @Test
+  @DisplayName("스레드가 커밋/롤백 없이 끝나면 누수로 보고하고 커넥션을 풀에 돌려준다")
+  void leak() throws Exception {
+    int activeBefore = dataSource.getHikariPoolMXBean().getActiveConnections();
+    Thread thread = new Thread(() -> {
+      try {
+        transactionManager.getTransaction();
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    thread.start();
+    thread.join();
+
+    leakDetector.scan(); // 주기 검사가 먼저 회수했더라도 결과는 같다.
+
+    List<ConnectionLeakDetector.MethodStats> offenders = leakDetector.worstOffenders(5);
+    assertAll(
+            () -> assertThat(offenders.get(0).getLeaks()).isEqualTo(1),
+            () -> assertThat(leakDetector.getActiveCount()).isZero(),
+            () -> assertThat(dataSource.getHikariPoolMXBean().getActiveConnections()).isEqualTo(activeBefore)
+    );
+  }
+
+  @Test
+  @DisplayName("지연 커넥션은 실제로 풀에서 빌린 시점부터 점유 시간을 잰다")
+  void lazyConnection() throws Exception {
+    LazyConnectionDataSource lazyDataSource = new LazyConnectionDataSource(dataSource);
+    MyTransactionManager lazyTransactionManager = new MyTransactionManager(lazyDataSource, lazyDataSource, leakDetector);
+
+    TransactionStatus unused = lazyTransactionManager.getTransaction();
+    int activeBeforeBorrow = leakDetector.getActiveCount();
+    Thread.sleep(150);
+    leakDetector.scan();
+    lazyTransactionManager.commit(unused);
+
+    TransactionStatus status = lazyTransactionManager.getTransaction();
+    Thread.sleep(150);
+    status.getConnection().prepareStatement("select 1").close(); // 여기서 빌린다.
+    lazyTransactionManager.commit(status);
+
+    assertAll(
+            () -> assertThat(activeBeforeBorrow).isZero(),
+            () -> assertThat(leakDetector.worstOffenders(5)).isEmpty(),
+            () -> assertThat(leakDetector.getStats().get(0).getAcquired()).isEqualTo(1),
+            () -> assertThat(leakDetector.getStats().get(0).getMaxHoldNanos()).isLessThan(100_000_000L)
+    );
+  }
+
+  @Test
+  @DisplayName("획득 스택의 첫 프레임은 트랜잭션 매니저나 지연 커넥션이 아니라 커넥션을 쓴 리포지토리다")
+  void callerFrame() throws Exception {
+    LazyConnectionDataSource lazyDataSource = new LazyConnectionDataSource(dataSource);
+    MyTransactionManager lazyTransactionManager = new MyTransactionManager(lazyDataSource, lazyDataSource, leakDetector);
+    MemberRepositoryV1 memberRepository = new MemberRepositoryV1(lazyDataSource);
+
+    TransactionStatus status = lazyTransactionManager.getTransaction();
+    memberRepository.delete("leakA"); // 여기서 빌린다.
+    Thread.sleep(150);
+    leakDetector.scan();
+    lazyTransactionManager.rollback(status);
+
+    String[] lines = leakDetector.report(5).split("\n");
+    assertAll(
+            () -> assertThat(lines).hasSizeGreaterThan(1),
+            () -> assertThat(lines[1]).startsWith("\tat org.example.member.MemberRepositoryV1.")
+    );
+  }
+
+  @Test
+  @DisplayName("정상적으로 짧게 끝난 트랜잭션은 보고하지 않는다")
+  void noOffender() throws Exception {
+    transactionManager.commit(transactionManager.getTransaction());
+    transactionManager.rollback(transactionManager.getTransaction());
+    leakDetector.scan();
+
+    assertAll(
+            () -> assertThat(leakDetector.worstOffenders(5)).isEmpty(),
+            () -> assertThat(leakDetector.getStats().get(0).getAcquired()).isEqualTo(2)
+    );
+  }
+}
@@ -0,0 +1,73 @@
+package org.example.db;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.member.Member;
+import org.example.member.MemberRepositoryV1;
+import org.example.transactional.MyTransactionManager;
+import org.example.transactional.TransactionStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class LazyConnectionDataSourceTest {
+
+  private HikariDataSource hikariDataSource;
+  private LazyConnectionDataSource dataSource;
+  private MyTransactionManager transactionManager;
+  private MemberRepositoryV1 memberRepository;
+
+  @BeforeEach
+  void setUp() {
+    hikariDataSource = DBConnectionUtil.getDataSource();
+    dataSource = new LazyConnectionDataSource(hikariDataSource);
+    transactionManager = new MyTransactionManager(dataSource);
+    memberRepository = new MemberRepositoryV1(dataSource);
+  }
+
+  @AfterEach
+  void tearDown() throws SQLException {
+    memberRepository.delete("lazyA");
+  }
+
+  @Test
+  @DisplayName("SQL을 실행하지 않는 트랜잭션은 커넥션을 빌리지 않는다")
+  void noStatement() throws SQLException {
+    TransactionStatus status = transactionManager.getTransaction();
+
+    assertAll(
+            () -> assertThat(LazyConnectionDataSource.isBorrowed(status.getConnection())).isFalse(),
+            () -> assertThat(status.getConnection().getAutoCommit()).isFalse(),
+            () -> assertThat(hikariDataSource.getHikariPoolMXBean().getActiveConnections()).isZero()
+    );
+    transactionManager.commit(status);
+  }
+
+  @Test
+  @DisplayName("처음 SQL을 실행할 때 커넥션을 빌리고 기록해둔 autoCommit을 적용한다")
+  void borrowOnFirstStatement() throws SQLException {
+    TransactionStatus status = transactionManager.getTransaction();
+    Connection con = status.getConnection();
+    memberRepository.save(new Member("lazyA", 10000));
+
+    assertAll(
+            () -> assertThat(LazyConnectionDataSource.isBorrowed(con)).isTrue(),
+            () -> assertThat(con.unwrap(Connection.class).getAutoCommit()).isFalse(),
+            () -> assertThat(hikariDataSource.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1)
+    );
+    transactionManager.rollback(status);
+
+    assertAll(
+            () -> assertThatThrownBy(() -> memberRepository.findById("lazyA")).isInstanceOf(NoSuchElementException.class),
+            () -> assertThat(hikariDataSource.getHikariPoolMXBean().getActiveConnections()).isZero()
+    );
+  }
+}
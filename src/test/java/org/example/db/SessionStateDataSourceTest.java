@@ -0,0 +1,76 @@
+package org.example.db;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class SessionStateDataSourceTest {
+
+  private HikariDataSource hikariDataSource;
+  private SessionStateDataSource dataSource;
+
+  @BeforeEach
+  void setUp() {
+    // 반납한 커넥션을 다시 꺼내 확인할 수 있도록 커넥션 하나짜리 풀을 사용한다.
+    hikariDataSource = new HikariDataSource();
+    hikariDataSource.setJdbcUrl(ConnectionConst.URL);
+    hikariDataSource.setUsername(ConnectionConst.USERNAME);
+    hikariDataSource.setPassword(ConnectionConst.PASSWORD);
+    hikariDataSource.setMaximumPoolSize(1);
+    dataSource = new SessionStateDataSource(hikariDataSource);
+  }
+
+  @AfterEach
+  void tearDown() {
+    hikariDataSource.close();
+  }
+
+  @Test
+  @DisplayName("값이 바뀌지 않는 설정과 상태 조회는 드라이버로 보내지 않는다")
+  void elideUnchanged() throws SQLException {
+    try (Connection con = dataSource.getConnection()) {
+      con.setAutoCommit(true);
+      con.setReadOnly(false);
+      con.setTransactionIsolation(con.getTransactionIsolation());
+      con.setAutoCommit(false);
+      con.setAutoCommit(false);
+      con.commit();
+      con.setAutoCommit(true);
+
+      assertThat(con.getAutoCommit()).isTrue();
+    }
+
+    assertAll(
+            () -> assertThat(dataSource.getElidedCalls()).isEqualTo(6),
+            () -> assertThat(dataSource.getAppliedCalls()).isEqualTo(2)
+    );
+  }
+
+  @Test
+  @DisplayName("반납할 때 달라진 상태만 기본값으로 되돌린다")
+  void resetChangedOnly() throws SQLException {
+    int defaultIsolation;
+    try (Connection con = dataSource.getConnection()) {
+      defaultIsolation = con.getTransactionIsolation();
+      con.setAutoCommit(false);
+      con.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+    }
+    long applied = dataSource.getAppliedCalls();
+
+    try (Connection con = hikariDataSource.getConnection()) {
+      assertAll(
+              () -> assertThat(applied).isEqualTo(4), // 변경 2번 + 복구 2번 (readOnly, 스키마는 그대로)
+              () -> assertThat(con.getAutoCommit()).isTrue(),
+              () -> assertThat(con.getTransactionIsolation()).isEqualTo(defaultIsolation)
+      );
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package org.example.db;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class StatementCacheTest {
+
+  private HikariDataSource dataSource;
+
+  @BeforeEach
+  void setUp() {
+    dataSource = DBConnectionUtil.getDataSource();
+  }
+
+  @Test
+  @DisplayName("커넥션을 반납했다가 다시 빌려도 같은 물리 커넥션이면 Statement를 재사용한다")
+  void reuseAcrossCheckout() throws SQLException {
+    StatementCache statementCache = new StatementCache();
+    String sql = "select * from member where member_id = ?";
+
+    Connection physical;
+    PreparedStatement first;
+    try (Connection con = dataSource.getConnection()) {
+      physical = con.unwrap(Connection.class);
+      first = statementCache.prepareStatement(con, sql);
+      assertThat(statementCache.prepareStatement(con, sql)).isSameAs(first);
+    }
+
+    // Hikari는 같은 스레드에 직전에 반납한 커넥션을 다시 준다.
+    try (Connection con = dataSource.getConnection()) {
+      assertThat(con.unwrap(Connection.class)).isSameAs(physical);
+      PreparedStatement second = statementCache.prepareStatement(con, sql);
+
+      assertAll(
+              () -> assertThat(second).isSameAs(first),
+              () -> assertThat(second.isClosed()).isFalse(),
+              () -> assertThat(statementCache.getMissCount()).isEqualTo(1),
+              () -> assertThat(statementCache.getHitCount()).isEqualTo(2)
+      );
+    }
+  }
+
+  @Test
+  @DisplayName("최대 크기를 넘으면 가장 오래 사용하지 않은 Statement를 닫는다")
+  void evictLeastRecentlyUsed() throws SQLException {
+    StatementCache statementCache = new StatementCache(2);
+
+    try (Connection con = dataSource.getConnection()) {
+      PreparedStatement first = statementCache.prepareStatement(con, "select 1");
+      PreparedStatement second = statementCache.prepareStatement(con, "select 2");
+      statementCache.prepareStatement(con, "select 1"); // select 1을 최근 사용으로 만든다.
+      statementCache.prepareStatement(con, "select 3");
+
+      assertAll(
+              () -> assertThat(first.isClosed()).isFalse(),
+              () -> assertThat(second.isClosed()).isTrue(),
+              () -> assertThat(statementCache.getEvictionCount()).isEqualTo(1)
+      );
+    }
+  }
+}
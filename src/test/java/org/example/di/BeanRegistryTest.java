@@ -0,0 +1,104 @@
+package org.example.di;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class BeanRegistryTest {
+
+  private BeanRegistry registry;
+
+  @BeforeEach
+  void setUp() {
+    registry = new BeanRegistry();
+    registry.registerSingleton(String.class, "config");
+  }
+
+  @Test
+  @DisplayName("@Inject 생성자 그래프를 한 번만 해석해서 싱글톤으로 보관한다")
+  void getBean() {
+    registry.registerBean(RepositoryImpl.class);
+
+    Service service = registry.getBean(Service.class);
+
+    assertAll(
+            () -> assertThat(registry.getBean(Service.class)).isSameAs(service),
+            () -> assertThat(service.repository).isSameAs(registry.getBean(Repository.class)),
+            () -> assertThat(((RepositoryImpl) service.repository).config).isEqualTo("config")
+    );
+  }
+
+  @Test
+  @DisplayName("서로 독립적인 빈들을 병렬로 미리 생성한다")
+  void preInstantiate() {
+    registry.registerBean(RepositoryImpl.class);
+
+    registry.preInstantiate(List.of(Service.class, OtherService.class, RepositoryImpl.class));
+
+    assertAll(
+            () -> assertThat(registry.getBean(Service.class).repository).isSameAs(registry.getBean(RepositoryImpl.class)),
+            () -> assertThat(registry.getBean(OtherService.class).repository).isSameAs(registry.getBean(RepositoryImpl.class))
+    );
+  }
+
+  @Test
+  @DisplayName("순환 참조를 감지한다")
+  void circularDependency() {
+    assertThatThrownBy(() -> registry.getBean(CycleA.class))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("circular dependency: CycleA -> CycleB -> CycleA");
+  }
+
+  public interface Repository {
+  }
+
+  public static class RepositoryImpl implements Repository {
+
+    private final String config;
+
+    @Inject
+    public RepositoryImpl(String config) {
+      this.config = config;
+    }
+  }
+
+  public static class Service {
+
+    private final Repository repository;
+
+    @Inject
+    public Service(Repository repository) {
+      this.repository = repository;
+    }
+  }
+
+  public static class OtherService {
+
+    private final Repository repository;
+
+    @Inject
+    public OtherService(Repository repository) {
+      this.repository = repository;
+    }
+  }
+
+  public static class CycleA {
+
+    @Inject
+    public CycleA(CycleB cycleB) {
+    }
+  }
+
+  public static class CycleB {
+
+    @Inject
+    public CycleB(CycleA cycleA) {
+    }
+  }
+}
@@ -6,6 +6,7 @@ import org.example.member.Member;
 import org.example.member.MemberRepositoryV1;
 import org.example.member.MemberServiceV2;
 import org.example.member.MemberServiceV2Impl;
+import org.example.member.MemberServiceV3;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -49,7 +50,7 @@ class ContainerServiceTest {
     memberRepository.save(memberB);
 
     // when
-    memberService.accountTransfer(memberA.getMemberId(), memberB.getMemberId(), 2000, dataSource.getConnection());
+    memberService.accountTransfer(memberA.getMemberId(), memberB.getMemberId(), 2000);
 
     // memberService.accountTransfer();
     Member findMemberA = memberRepository.findById(memberA.getMemberId());
@@ -71,7 +72,56 @@ class ContainerServiceTest {
     memberRepository.save(memberEx);
 
     // when
-    assertThatThrownBy(() -> memberService.accountTransfer("memberA", "ex", 2000, dataSource.getConnection()))
+    assertThatThrownBy(() -> memberService.accountTransfer("memberA", "ex", 2000))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("이체중 예외 발생");
+
+    // then
+    Member findMemberA = memberRepository.findById(memberA.getMemberId());
+    Member findMemberEx = memberRepository.findById(memberEx.getMemberId());
+
+    assertAll(
+            () -> assertThat(findMemberA.getMoney()).isEqualTo(10000),
+            () -> assertThat(findMemberEx.getMoney()).isEqualTo(10000)
+    );
+  }
+
+  @Test
+  @DisplayName("인터페이스 없는 클래스는 서브클래스 프록시로 이체")
+  void getObjectWithoutInterface() throws SQLException {
+    // given
+    Member memberA = new Member("memberA", 10000);
+    Member memberB = new Member("memberB", 10000);
+    memberRepository.save(memberA);
+    memberRepository.save(memberB);
+    MemberServiceV3 memberServiceV3 = ContainerService.getObject(MemberServiceV3.class);
+
+    // when
+    memberServiceV3.accountTransfer(memberA.getMemberId(), memberB.getMemberId(), 2000);
+
+    // then
+    Member findMemberA = memberRepository.findById(memberA.getMemberId());
+    Member findMemberB = memberRepository.findById(memberB.getMemberId());
+
+    assertAll(
+            () -> assertThat(memberServiceV3.getClass()).isNotEqualTo(MemberServiceV3.class),
+            () -> assertThat(findMemberA.getMoney()).isEqualTo(8000),
+            () -> assertThat(findMemberB.getMoney()).isEqualTo(12000)
+    );
+  }
+
+  @Test
+  @DisplayName("서브클래스 프록시 이체중 예외 발생")
+  void accountTransferExWithoutInterface() throws SQLException {
+    // given
+    Member memberA = new Member("memberA", 10000);
+    Member memberEx = new Member("ex", 10000);
+    memberRepository.save(memberA);
+    memberRepository.save(memberEx);
+    MemberServiceV3 memberServiceV3 = ContainerService.getObject(MemberServiceV3.class);
+
+    // when
+    assertThatThrownBy(() -> memberServiceV3.accountTransfer("memberA", "ex", 2000))
             .isInstanceOf(IllegalStateException.class)
             .hasMessage("이체중 예외 발생");
 
@@ -0,0 +1,88 @@
+package org.example.di;
+
+import org.example.db.DBConnectionUtil;
+import org.example.member.Member;
+import org.example.member.MemberRepositoryV1;
+import org.example.member.MemberServiceV1;
+import org.example.member.MemberServiceV2;
+import org.example.member.MemberServiceV2Impl;
+import org.example.member.MemberServiceV3;
+import org.example.transactional.MyTransactionManager;
+import org.example.transactional.TransactionSynchronizationManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.ServiceLoader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class GeneratedBeanIndexTest {
+
+  @Test
+  @DisplayName("컴파일 시점에 생성된 빈 인덱스를 ServiceLoader로 찾는다")
+  void loadIndex() {
+    Optional<BeanIndex> index = ServiceLoader.load(BeanIndex.class).findFirst();
+
+    assertAll(
+            () -> assertThat(index).isPresent(),
+            () -> assertThat(index.get().getBeanClasses()).containsExactlyInAnyOrder(
+                    MemberRepositoryV1.class, MemberServiceV1.class, MemberServiceV2Impl.class, MemberServiceV3.class)
+    );
+  }
+
+  @Test
+  @DisplayName("@MyTransactional 메서드가 있는 빈만 동적 프록시 대신 생성된 서브클래스로 만들어진다")
+  void generatedProxy() {
+    MemberServiceV2 memberServiceV2 = ContainerService.getObject(MemberServiceV2Impl.class);
+    MemberServiceV3 memberServiceV3 = ContainerService.getObject(MemberServiceV3.class);
+    MemberRepositoryV1 memberRepository = ContainerService.getObject(MemberRepositoryV1.class);
+    MemberServiceV1 memberServiceV1 = ContainerService.getObject(MemberServiceV1.class);
+
+    assertAll(
+            () -> assertThat(Proxy.isProxyClass(memberServiceV2.getClass())).isFalse(),
+            () -> assertThat(memberServiceV2.getClass().getName()).isEqualTo("org.example.member.MemberServiceV2Impl$$Proxy"),
+            () -> assertThat(memberServiceV3.getClass().getName()).isEqualTo("org.example.member.MemberServiceV3$$Proxy"),
+            () -> assertThat(memberRepository.getClass()).isEqualTo(MemberRepositoryV1.class),
+            () -> assertThat(memberServiceV1.getClass()).isEqualTo(MemberServiceV1.class)
+    );
+  }
+
+  @Test
+  @DisplayName("생성된 프록시는 추가로 등록된 인터셉터를 트랜잭션 안쪽에서 호출한다")
+  void additionalAdvisor() throws SQLException {
+    DataSource dataSource = DBConnectionUtil.getDataSource();
+    MemberRepositoryV1 memberRepository = new MemberRepositoryV1(dataSource);
+    List<String> calls = new ArrayList<>();
+
+    BeanRegistry registry = new BeanRegistry();
+    registry.registerSingleton(MemberRepositoryV1.class, memberRepository);
+    registry.registerAdvisor(new TransactionAdvisor(new MyTransactionManager(dataSource)));
+    registry.registerAdvisor((method, targetClass) -> invocation -> {
+      calls.add(method.getName() + ":" + TransactionSynchronizationManager.hasResource(dataSource));
+      return invocation.proceed();
+    });
+    ServiceLoader.load(BeanIndex.class).findFirst().orElseThrow().registerBeans(registry);
+
+    try {
+      memberRepository.save(new Member("memberA", 10000));
+      memberRepository.save(new Member("memberB", 10000));
+      registry.getBean(MemberServiceV3.class).accountTransfer("memberA", "memberB", 2000);
+    } finally {
+      memberRepository.delete("memberA");
+      memberRepository.delete("memberB");
+    }
+
+    assertAll(
+            () -> assertThat(registry.getBean(MemberServiceV3.class).getClass().getName())
+                    .isEqualTo("org.example.member.MemberServiceV3$$Proxy"),
+            () -> assertThat(calls).containsExactly("accountTransfer:true")
+    );
+  }
+}
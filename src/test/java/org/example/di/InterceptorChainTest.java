@@ -0,0 +1,115 @@
+package org.example.di;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class InterceptorChainTest {
+
+  @Test
+  @DisplayName("등록 순서대로 바깥쪽부터 감싸고, 메서드마다 적용되는 인터셉터만 체인에 넣는다")
+  void chainOrder() throws Exception {
+    List<String> calls = new ArrayList<>();
+    List<Advisor> advisors = List.of(recording("first", calls), recording("second", calls), onlyGreet(calls));
+
+    Greeter proxy = (Greeter) Proxy.newProxyInstance(
+            Greeter.class.getClassLoader(),
+            new Class[]{Greeter.class},
+            new MyTransactionalHandler(new GreeterImpl(calls), new Class[]{Greeter.class}, advisors));
+
+    String greeting = proxy.greet("oneny");
+    List<String> greetCalls = new ArrayList<>(calls);
+    calls.clear();
+    proxy.count();
+
+    assertAll(
+            () -> assertThat(greeting).isEqualTo("hello oneny"),
+            () -> assertThat(greetCalls).containsExactly("first:greet", "second:greet", "greetOnly", "target"),
+            () -> assertThat(calls).containsExactly("first:count", "second:count", "target"),
+            () -> assertThat(InterceptorChain.build(Greeter.class.getMethod("count"), GreeterImpl.class, List.of(onlyGreet(calls))))
+                    .isNull(),
+            () -> assertThat(InterceptorChain.build(Greeter.class.getMethod("greet", String.class), GreeterImpl.class, advisors).size())
+                    .isEqualTo(3)
+    );
+  }
+
+  @Test
+  @DisplayName("인터셉터가 proceed()를 다시 호출하면 안쪽 체인 전체를 다시 탄다")
+  void proceedTwice() {
+    List<String> calls = new ArrayList<>();
+    Advisor retry = (method, targetClass) -> invocation -> {
+      invocation.proceed();
+      return invocation.proceed();
+    };
+
+    GreeterImpl proxy = SubclassProxyFactory.createProxy(GreeterImpl.class, new Class[]{List.class}, new Object[]{calls},
+            List.of(retry, recording("inner", calls)));
+    proxy.count();
+
+    assertThat(calls).containsExactly("inner:count", "target", "inner:count", "target");
+  }
+
+  @Test
+  @DisplayName("적용되는 인터셉터가 없으면 프록시를 만들지 않는다")
+  void noAdvice() {
+    BeanRegistry registry = new BeanRegistry();
+    registry.registerSingleton(List.class, new ArrayList<>());
+    registry.registerAdvisor((method, targetClass) -> null);
+
+    assertThat(registry.getBean(GreeterImpl.class).getClass()).isEqualTo(GreeterImpl.class);
+  }
+
+  private static Advisor recording(String name, List<String> calls) {
+    return (method, targetClass) -> invocation -> {
+      calls.add(name + ":" + invocation.getMethod().getName());
+      return invocation.proceed();
+    };
+  }
+
+  private static Advisor onlyGreet(List<String> calls) {
+    return (method, targetClass) -> {
+      if (!method.getName().equals("greet") || targetClass != GreeterImpl.class) {
+        return null;
+      }
+      return invocation -> {
+        calls.add("greetOnly");
+        return invocation.proceed();
+      };
+    };
+  }
+
+  public interface Greeter {
+
+    String greet(String name);
+
+    int count();
+  }
+
+  public static class GreeterImpl implements Greeter {
+
+    private final List<String> calls;
+
+    @Inject
+    public GreeterImpl(List<String> calls) {
+      this.calls = calls;
+    }
+
+    @Override
+    public String greet(String name) {
+      calls.add("target");
+      return "hello " + name;
+    }
+
+    @Override
+    public int count() {
+      calls.add("target");
+      return calls.size();
+    }
+  }
+}
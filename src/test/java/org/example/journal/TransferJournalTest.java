@@ -0,0 +1,148 @@
+package org.example.journal;
+
+import org.example.db.DBConnectionUtil;
+import org.example.member.Member;
+import org.example.member.MemberRepositoryV1;
+import org.example.transactional.MyTransactionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sql.DataSource;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class TransferJournalTest {
+
+  @TempDir
+  Path directory;
+
+  private DataSource dataSource;
+  private MemberRepositoryV1 memberRepository;
+  private MyTransactionManager transactionManager;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    dataSource = DBConnectionUtil.getDataSource();
+    memberRepository = new MemberRepositoryV1(dataSource);
+    transactionManager = new MyTransactionManager(dataSource);
+
+    memberRepository.save(new Member("journalA", 10000));
+    memberRepository.save(new Member("journalB", 10000));
+  }
+
+  @AfterEach
+  void tearDown() throws SQLException {
+    memberRepository.delete("journalA");
+    memberRepository.delete("journalB");
+    try (Connection con = dataSource.getConnection(); Statement stmt = con.createStatement()) {
+      stmt.execute("delete from transfer_journal_checkpoint where journal_name like 'test-%'");
+    }
+  }
+
+  @Test
+  @DisplayName("fsync 후 응답하고, 백그라운드에서 DB에 반영한 뒤 거절된 이체는 건너뛴다")
+  void accountTransfer() throws Exception {
+    try (TransferJournal journal = new TransferJournal("test-apply", directory, memberRepository, transactionManager)) {
+      List<CompletableFuture<Void>> futures = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        futures.add(journal.accountTransferAsync("journalA", "journalB", 10));
+      }
+      futures.add(journal.accountTransferAsync("journalA", "journalB", 100000)); // 잔액 부족
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+      assertThat(journal.getDurableSeq()).isEqualTo(101);
+      awaitApplied(journal);
+      assertThat(journal.getRejectedCount()).isEqualTo(1);
+    }
+
+    assertAll(
+            () -> assertThat(memberRepository.findById("journalA").getMoney()).isEqualTo(9000),
+            () -> assertThat(memberRepository.findById("journalB").getMoney()).isEqualTo(11000)
+    );
+  }
+
+  @Test
+  @DisplayName("시작할 때 반영되지 않은 엔트리를 복구하고, 쓰다 만 꼬리는 잘라낸다")
+  void recover() throws Exception {
+    ByteBuffer buffer = ByteBuffer.allocate(JournalEntry.MAX_BYTES * 4);
+    new JournalEntry(1, "journalA", "journalB", 1000).writeTo(buffer);
+    new JournalEntry(2, "journalB", "journalA", 300).writeTo(buffer);
+    buffer.putInt(100).putLong(3); // 쓰다 만 엔트리
+    Path segment = directory.resolve(String.format("journal-%020d.log", 1));
+    Files.write(segment, Arrays.copyOf(buffer.array(), buffer.position()));
+
+    try (TransferJournal journal = new TransferJournal("test-recover", directory, memberRepository, transactionManager)) {
+      assertAll(
+              () -> assertThat(journal.getAppliedSeq()).isEqualTo(2),
+              () -> assertThat(memberRepository.findById("journalA").getMoney()).isEqualTo(9300),
+              () -> assertThat(memberRepository.findById("journalB").getMoney()).isEqualTo(10700)
+      );
+
+      journal.accountTransfer("journalA", "journalB", 100);
+      assertThat(journal.getDurableSeq()).isEqualTo(3);
+      awaitApplied(journal);
+    }
+
+    try (Stream<Path> files = Files.list(directory)) {
+      assertThat(files).doesNotContain(segment); // 반영이 끝난 세그먼트는 지운다.
+    }
+    assertThat(memberRepository.findById("journalB").getMoney()).isEqualTo(10800);
+  }
+
+  @Test
+  @DisplayName("종료와 동시에 제출된 이체도 모두 완료되거나 거절된다")
+  void submitWhileClosing() throws Exception {
+    TransferJournal journal = new TransferJournal("test-close", directory, memberRepository, transactionManager);
+    Queue<CompletableFuture<Void>> futures = new ConcurrentLinkedQueue<>();
+    CountDownLatch started = new CountDownLatch(4);
+    ExecutorService producers = Executors.newFixedThreadPool(4);
+
+    for (int i = 0; i < 4; i++) {
+      producers.execute(() -> {
+        started.countDown();
+        try {
+          while (true) {
+            futures.add(journal.accountTransferAsync("journalA", "journalB", 1));
+          }
+        } catch (IllegalStateException e) {
+          // 종료된 뒤의 제출은 바로 거절된다.
+        }
+      });
+    }
+    started.await();
+    Thread.sleep(20);
+    journal.close();
+    producers.shutdown();
+    assertThat(producers.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+    assertThat(futures).isNotEmpty().allMatch(CompletableFuture::isDone);
+  }
+
+  private void awaitApplied(TransferJournal journal) throws InterruptedException {
+    for (int i = 0; i < 100 && journal.getAppliedSeq() < journal.getDurableSeq(); i++) {
+      Thread.sleep(50);
+    }
+    assertThat(journal.getAppliedSeq()).isEqualTo(journal.getDurableSeq());
+  }
+}
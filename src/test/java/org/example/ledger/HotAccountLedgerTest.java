@@ -0,0 +1,141 @@
+package org.example.ledger;
+
+import org.example.db.DBConnectionUtil;
+import org.example.member.Member;
+import org.example.member.MemberRepositoryV1;
+import org.example.transactional.MyTransactionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class HotAccountLedgerTest {
+
+  private DataSource dataSource;
+  private MemberRepositoryV1 memberRepository;
+  private HotAccountLedger ledger;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    dataSource = DBConnectionUtil.getDataSource();
+    memberRepository = new MemberRepositoryV1(dataSource);
+    memberRepository.save(new Member("hotA", 10000));
+    memberRepository.save(new Member("hotB", 10000));
+    memberRepository.save(new Member("memberC", 10000));
+
+    ledger = new HotAccountLedger(memberRepository, new MyTransactionManager(dataSource), Set.of("hotA", "hotB"), 60_000);
+  }
+
+  @AfterEach
+  void tearDown() throws SQLException {
+    ledger.close();
+    memberRepository.delete("hotA");
+    memberRepository.delete("hotB");
+    memberRepository.delete("memberC");
+  }
+
+  @Test
+  @DisplayName("핫 계좌 이체는 메모리에 반영되고 플러시할 때 DB에 반영된다")
+  void writeBehind() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      futures.add(executor.submit(() -> {
+        ledger.transfer("hotA", "hotB", 10);
+        return null;
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+
+    assertAll(
+            () -> assertThat(ledger.getBalance("hotA")).isEqualTo(9000),
+            () -> assertThat(memberRepository.findById("hotA").getMoney()).isEqualTo(10000)
+    );
+
+    ledger.flush();
+
+    assertAll(
+            () -> assertThat(memberRepository.findById("hotA").getMoney()).isEqualTo(9000),
+            () -> assertThat(memberRepository.findById("hotB").getMoney()).isEqualTo(11000)
+    );
+  }
+
+  @Test
+  @DisplayName("일반 계좌와의 이체는 일반 계좌 쪽을 바로 DB에 반영하고, 종료 시 남은 증감분을 반영한다")
+  void transferWithColdAccount() throws SQLException {
+    ledger.transfer("hotA", "memberC", 1000);
+    ledger.transfer("memberC", "hotB", 500);
+
+    assertThat(memberRepository.findById("memberC").getMoney()).isEqualTo(10500);
+
+    ledger.close();
+
+    assertAll(
+            () -> assertThat(memberRepository.findById("hotA").getMoney()).isEqualTo(9000),
+            () -> assertThat(memberRepository.findById("hotB").getMoney()).isEqualTo(10500),
+            () -> assertThatThrownBy(() -> ledger.transfer("hotA", "hotB", 1)).isInstanceOf(IllegalStateException.class)
+    );
+  }
+
+  @Test
+  @DisplayName("이체 중에 종료하면 진행 중인 이체가 끝난 뒤 증감분을 모두 반영하고, 이후 이체는 거절한다")
+  void closeWhileTransferring() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<Boolean>> futures = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      futures.add(executor.submit(() -> {
+        try {
+          ledger.transfer("hotA", "hotB", 1);
+          return true;
+        } catch (IllegalStateException e) {
+          return false; // 종료된 뒤의 이체
+        }
+      }));
+    }
+    ledger.close();
+
+    long transferred = 0;
+    for (Future<Boolean> future : futures) {
+      transferred += future.get() ? 1 : 0;
+    }
+    executor.shutdown();
+
+    long expected = transferred;
+    assertAll(
+            () -> assertThat(memberRepository.findById("hotA").getMoney()).isEqualTo(10000 - expected),
+            () -> assertThat(memberRepository.findById("hotB").getMoney()).isEqualTo(10000 + expected)
+    );
+  }
+
+  @Test
+  @DisplayName("잔액이 부족하면 출금하지 않는다")
+  void insufficientBalance() throws SQLException {
+    assertThatThrownBy(() -> ledger.transfer("hotA", "hotB", 10001))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("잔액 부족 memberId = hotA");
+    assertThatThrownBy(() -> ledger.transfer("hotA", "unknown", 100))
+            .isInstanceOf(NoSuchElementException.class);
+
+    assertAll(
+            () -> assertThat(ledger.getBalance("hotA")).isEqualTo(10000),
+            () -> assertThat(ledger.getBalance("hotB")).isEqualTo(10000)
+    );
+  }
+}
@@ -0,0 +1,147 @@
+package org.example.member;
+
+import org.example.db.DBConnectionUtil;
+import org.example.di.ContainerService;
+import org.example.metrics.MetricsRegistry;
+import org.example.metrics.PinningMonitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class AsyncMemberServiceTest {
+
+  private MemberRepositoryV1 memberRepository;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    memberRepository = new MemberRepositoryV1(DBConnectionUtil.getDataSource());
+    memberRepository.save(new Member("memberA", 10000));
+    memberRepository.save(new Member("memberB", 10000));
+  }
+
+  @AfterEach
+  void tearDown() throws SQLException {
+    memberRepository.delete("memberA");
+    memberRepository.delete("memberB");
+  }
+
+  @Test
+  @DisplayName("동시에 몰린 이체를 풀 크기만큼씩 처리한다")
+  void accountTransferAsync() {
+    MemberServiceV2 memberService = ContainerService.getObject(MemberServiceV2.class);
+
+    try (AsyncMemberService asyncService = new AsyncMemberService(memberService, DBConnectionUtil.getDataSource())) {
+      List<CompletableFuture<Void>> futures = new ArrayList<>();
+      for (int i = 0; i < 500; i++) {
+        futures.add(asyncService.accountTransferAsync("memberA", "memberB", 10));
+      }
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    }
+
+    assertAll(
+            () -> assertThat(memberRepository.findById("memberA").getMoney()).isEqualTo(5000),
+            () -> assertThat(memberRepository.findById("memberB").getMoney()).isEqualTo(15000)
+    );
+  }
+
+  @Test
+  @DisplayName("동시에 실행되는 호출 수는 허용치를 넘지 않고, synchronized 안에서 블로킹하면 pinning으로 보고한다")
+  void admissionAndPinning() throws InterruptedException {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    MemberServiceV2 slowService = new SlowMemberService(running, maxRunning);
+
+    try (AsyncMemberService asyncService = new AsyncMemberService(slowService, 2)) {
+      List<CompletableFuture<Member>> futures = new ArrayList<>();
+      for (int i = 0; i < 10; i++) {
+        futures.add(asyncService.findMemberAsync("memberA"));
+      }
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+      for (int i = 0; i < 100 && asyncService.getPinnedCount() == 0; i++) { // JFR 이벤트는 조금 늦게 전달된다.
+        Thread.sleep(100);
+      }
+
+      assertAll(
+              () -> assertThat(maxRunning.get()).isLessThanOrEqualTo(2),
+              () -> assertThat(asyncService.getPinnedCount()).isPositive()
+      );
+    }
+  }
+
+  @Test
+  @DisplayName("pinning 모니터는 파사드가 공유하므로 파사드를 닫아도 게이지가 살아 있고, 모니터를 닫으면 게이지를 내린다")
+  void sharedPinningMonitor() {
+    new AsyncMemberService(new SlowMemberService(new AtomicInteger(), new AtomicInteger()), 2).close();
+    new AsyncMemberService(new SlowMemberService(new AtomicInteger(), new AtomicInteger()), 2).close();
+
+    long pinnedBefore = PinningMonitor.global().getPinnedCount(); // 앞선 테스트의 JFR 이벤트가 늦게 도착할 수 있다.
+    String globalDump = MetricsRegistry.global().dump();
+
+    MetricsRegistry metricsRegistry = new MetricsRegistry();
+    PinningMonitor monitor = new PinningMonitor(Duration.ofMillis(20), metricsRegistry);
+    boolean registered = metricsRegistry.dump().contains("virtual_thread_pinned_total");
+    monitor.close();
+
+    assertAll(
+            () -> assertThat(globalDump).containsPattern("virtual_thread_pinned_total \\d+"),
+            () -> assertThat(gaugeValue(globalDump)).isBetween(pinnedBefore, PinningMonitor.global().getPinnedCount()),
+            () -> assertThat(registered).isTrue(),
+            () -> assertThat(metricsRegistry.dump()).doesNotContain("virtual_thread_pinned_total")
+    );
+  }
+
+  private static long gaugeValue(String dump) {
+    return dump.lines()
+            .filter(line -> line.startsWith("virtual_thread_pinned_total "))
+            .mapToLong(line -> Long.parseLong(line.substring(line.indexOf(' ') + 1)))
+            .findFirst()
+            .orElse(-1);
+  }
+
+  static class SlowMemberService implements MemberServiceV2 {
+
+    private final AtomicInteger running;
+    private final AtomicInteger maxRunning;
+
+    SlowMemberService(AtomicInteger running, AtomicInteger maxRunning) {
+      this.running = running;
+      this.maxRunning = maxRunning;
+    }
+
+    @Override
+    public void accountTransfer(String fromId, String toId, int money) {
+    }
+
+    @Override
+    public Member findMember(String memberId) {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      try {
+        synchronized (new Object()) {
+          Thread.sleep(50);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        running.decrementAndGet();
+      }
+      return new Member(memberId, 0);
+    }
+
+    @Override
+    public List<Transfer> accountTransferBatch(List<Transfer> transfers, BatchFailurePolicy policy) {
+      return List.of();
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package org.example.member;
+
+import org.example.db.DBConnectionUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class MemberBulkLoaderTest {
+
+  private DataSource dataSource;
+  private MemberBulkLoader bulkLoader;
+
+  @BeforeEach
+  void setUp() {
+    dataSource = DBConnectionUtil.getDataSource();
+    bulkLoader = new MemberBulkLoader(dataSource, 1000, 3);
+  }
+
+  @AfterEach
+  void tearDown() throws SQLException {
+    execute("delete from member where member_id like 'bulk%'");
+  }
+
+  @Test
+  @DisplayName("청크 단위 트랜잭션으로 나누어 여러 스레드가 적재한다")
+  void load() throws SQLException {
+    long loaded = bulkLoader.load(IntStream.range(0, 2550).mapToObj(i -> new Member(String.format("bulk%05d", i), i)));
+
+    assertAll(
+            () -> assertThat(loaded).isEqualTo(2550),
+            () -> assertThat(count("select count(*) from member where member_id like 'bulk%'")).isEqualTo(2550),
+            () -> assertThat(count("select sum(money) from member where member_id like 'bulk%'")).isEqualTo(2549L * 2550 / 2)
+    );
+  }
+
+  @Test
+  @DisplayName("중복 키가 있으면 실패한 청크는 롤백되고 예외가 발생한다")
+  void loadDuplicate() throws SQLException {
+    List<Member> members = List.of(new Member("bulk1", 0), new Member("bulk1", 0));
+
+    assertThatThrownBy(() -> bulkLoader.load(members))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageStartingWith("bulk load failed after 0 rows");
+    assertThat(count("select count(*) from member where member_id like 'bulk%'")).isZero();
+  }
+
+  @Test
+  @DisplayName("입력을 읽다가 실패하면 writer를 멈추고 예외를 그대로 던진다")
+  void loadInputFailure() {
+    Iterator<Member> members = IntStream.range(0, 5000)
+            .mapToObj(i -> {
+              if (i == 4000) {
+                throw new IllegalArgumentException("broken input");
+              }
+              return new Member(String.format("bulk%05d", i), i);
+            })
+            .iterator();
+
+    assertThatThrownBy(() -> bulkLoader.load(members))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("broken input");
+  }
+
+  @Test
+  @DisplayName("CSV 파일을 CSVREAD로 한 번에 적재한다")
+  void loadCsv() throws IOException, SQLException {
+    Path file = Files.createTempFile("members", ".csv");
+    Files.writeString(file, "MEMBER_ID,MONEY\nbulkA,100\nbulkB,200\n");
+
+    try {
+      assertAll(
+              () -> assertThat(bulkLoader.loadCsv(file)).isEqualTo(2),
+              () -> assertThat(count("select sum(money) from member where member_id like 'bulk%'")).isEqualTo(300)
+      );
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private long count(String sql) throws SQLException {
+    try (Connection con = dataSource.getConnection();
+         Statement stmt = con.createStatement();
+         ResultSet rs = stmt.executeQuery(sql)) {
+      rs.next();
+      return rs.getLong(1);
+    }
+  }
+
+  private void execute(String sql) throws SQLException {
+    try (Connection con = dataSource.getConnection(); Statement stmt = con.createStatement()) {
+      stmt.execute(sql);
+    }
+  }
+}
@@ -0,0 +1,130 @@
+package org.example.member;
+
+import org.example.db.DBConnectionUtil;
+import org.example.db.StatementCache;
+import org.example.transactional.MyTransactionManager;
+import org.example.transactional.TransactionStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class MemberCacheTest {
+
+  private MemberCache memberCache;
+  private MemberRepositoryV1 memberRepository;
+  private MyTransactionManager transactionManager;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    DataSource dataSource = DBConnectionUtil.getDataSource();
+    memberCache = new MemberCache(100, Duration.ofMinutes(1));
+    memberRepository = new MemberRepositoryV1(dataSource, new StatementCache(), memberCache);
+    transactionManager = new MyTransactionManager(dataSource);
+
+    memberRepository.save(new Member("memberA", 10000));
+  }
+
+  @AfterEach
+  void tearDown() throws SQLException {
+    memberRepository.delete("memberA");
+  }
+
+  @Test
+  @DisplayName("커밋 전의 잔액은 다른 스레드에 보이지 않고 커밋 후에 보인다")
+  void invalidateAfterCommit() throws Exception {
+    memberRepository.findById("memberA");
+
+    TransactionStatus status = transactionManager.getTransaction();
+    memberRepository.update("memberA", 5000);
+
+    Member inTransaction = memberRepository.findById("memberA");
+    Member otherThread = CompletableFuture.supplyAsync(this::findMemberA).get();
+    transactionManager.commit(status);
+
+    assertAll(
+            () -> assertThat(inTransaction.getMoney()).isEqualTo(5000),
+            () -> assertThat(otherThread.getMoney()).isEqualTo(10000),
+            () -> assertThat(memberRepository.findById("memberA").getMoney()).isEqualTo(5000)
+    );
+  }
+
+  @Test
+  @DisplayName("롤백되면 캐시된 값을 그대로 사용한다")
+  void discardOnRollback() throws Exception {
+    memberRepository.findById("memberA");
+
+    TransactionStatus status = transactionManager.getTransaction();
+    memberRepository.update("memberA", 5000);
+    transactionManager.rollback(status);
+
+    long hits = memberCache.getHitCount();
+    assertAll(
+            () -> assertThat(memberRepository.findById("memberA").getMoney()).isEqualTo(10000),
+            () -> assertThat(memberCache.getHitCount()).isEqualTo(hits + 1)
+    );
+  }
+
+  @Test
+  @DisplayName("TTL이 지나면 다시 읽고, 최대 크기를 넘지 않는다")
+  void expireAndEvict() throws Exception {
+    MemberCache cache = new MemberCache(2, Duration.ofMillis(50));
+    AtomicInteger loads = new AtomicInteger();
+    MemberCache.MemberLoader loader = memberId -> {
+      loads.incrementAndGet();
+      return new Member(memberId, 0);
+    };
+
+    cache.get("memberA", loader);
+    cache.get("memberA", loader);
+    Thread.sleep(100);
+    cache.get("memberA", loader);
+    cache.get("memberB", loader);
+    cache.get("memberC", loader);
+
+    assertAll(
+            () -> assertThat(loads.get()).isEqualTo(4),
+            () -> assertThat(cache.size()).isLessThanOrEqualTo(2)
+    );
+  }
+
+  @Test
+  @DisplayName("가득 찬 상태에서 미스가 계속되어도 자주 조회하는 회원은 밀려나지 않는다")
+  void keepHotEntry() throws Exception {
+    MemberCache cache = new MemberCache(10, Duration.ofMinutes(1));
+    AtomicInteger loads = new AtomicInteger();
+    MemberCache.MemberLoader loader = memberId -> {
+      loads.incrementAndGet();
+      return new Member(memberId, 0);
+    };
+
+    cache.get("hot", loader);
+    for (int i = 0; i < 1000; i++) {
+      cache.get("cold" + i, loader);
+      cache.get("hot", loader);
+    }
+
+    assertAll(
+            () -> assertThat(loads.get()).isEqualTo(1001),
+            () -> assertThat(cache.getHitCount()).isEqualTo(1000),
+            () -> assertThat(cache.size()).isEqualTo(10)
+    );
+  }
+
+  private Member findMemberA() {
+    try {
+      return memberRepository.findById("memberA");
+    } catch (SQLException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
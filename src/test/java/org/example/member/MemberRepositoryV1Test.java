@@ -1,12 +1,17 @@
 package org.example.member;
 
+import com.zaxxer.hikari.HikariDataSource;
 import org.example.db.DBConnectionUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import javax.sql.DataSource;
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -57,4 +62,112 @@ class MemberRepositoryV1Test {
             .isInstanceOf(NoSuchElementException.class)
             .hasMessage("member not found memberId = threeny");
   }
+
+  @Test
+  void transfer() throws SQLException {
+    memberRepository.save(new Member("transferA", 1000));
+    memberRepository.save(new Member("transferB", 1000));
+
+    try {
+      inTransaction(con -> memberRepository.transfer(con, "transferA", "transferB", 300));
+
+      assertAll(
+              () -> assertThat(memberRepository.findById("transferA").getMoney()).isEqualTo(700),
+              () -> assertThat(memberRepository.findById("transferB").getMoney()).isEqualTo(1300)
+      );
+    } finally {
+      memberRepository.delete("transferA");
+      memberRepository.delete("transferB");
+    }
+  }
+
+  @Test
+  void transferInsufficientBalance() throws SQLException {
+    memberRepository.save(new Member("transferA", 1000));
+    memberRepository.save(new Member("transferB", 1000));
+
+    try {
+      assertThatThrownBy(() -> inTransaction(con -> memberRepository.transfer(con, "transferA", "transferB", 1001)))
+              .isInstanceOf(IllegalStateException.class)
+              .hasMessage("잔액 부족 memberId = transferA");
+      assertThatThrownBy(() -> inTransaction(con -> memberRepository.transfer(con, "transferA", "unknown", 100)))
+              .isInstanceOf(NoSuchElementException.class);
+
+      assertAll(
+              () -> assertThat(memberRepository.findById("transferA").getMoney()).isEqualTo(1000),
+              () -> assertThat(memberRepository.findById("transferB").getMoney()).isEqualTo(1000)
+      );
+    } finally {
+      memberRepository.delete("transferA");
+      memberRepository.delete("transferB");
+    }
+  }
+
+  @Test
+  void streamAll() throws SQLException {
+    saveStreamMembers();
+
+    try (Stream<Member> members = memberRepository.streamAll(2)) {
+      List<String> ids = members.map(Member::getMemberId)
+              .filter(id -> id.startsWith("stream"))
+              .collect(Collectors.toList());
+
+      assertThat(ids).containsExactly("stream0", "stream1", "stream2", "stream3", "stream4");
+    } finally {
+      deleteStreamMembers();
+    }
+    assertThat(((HikariDataSource) dataSource).getHikariPoolMXBean().getActiveConnections()).isZero();
+  }
+
+  @Test
+  void streamAllByKeyset() throws SQLException {
+    saveStreamMembers();
+
+    try {
+      List<String> ids = memberRepository.streamAllByKeyset(2)
+              .map(Member::getMemberId)
+              .filter(id -> id.startsWith("stream"))
+              .collect(Collectors.toList());
+
+      assertAll(
+              () -> assertThat(ids).containsExactly("stream0", "stream1", "stream2", "stream3", "stream4"),
+              () -> assertThat(memberRepository.findAllAfter("stream1", 2))
+                      .extracting(Member::getMemberId)
+                      .containsExactly("stream2", "stream3")
+      );
+    } finally {
+      deleteStreamMembers();
+    }
+  }
+
+  private void saveStreamMembers() throws SQLException {
+    for (int i = 0; i < 5; i++) {
+      memberRepository.save(new Member("stream" + i, i));
+    }
+  }
+
+  private void deleteStreamMembers() throws SQLException {
+    for (int i = 0; i < 5; i++) {
+      memberRepository.delete("stream" + i);
+    }
+  }
+
+  private void inTransaction(SqlConsumer consumer) throws SQLException {
+    Connection con = dataSource.getConnection();
+    try {
+      con.setAutoCommit(false);
+      consumer.accept(con);
+      con.commit();
+    } catch (SQLException | RuntimeException e) {
+      con.rollback();
+      throw e;
+    } finally {
+      con.setAutoCommit(true);
+      con.close();
+    }
+  }
+
+  interface SqlConsumer {
+    void accept(Connection con) throws SQLException;
+  }
 }
@@ -0,0 +1,132 @@
+package org.example.member;
+
+import org.example.db.DBConnectionUtil;
+import org.example.di.ContainerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class MemberServiceV2BatchTest {
+
+  private DataSource dataSource;
+  private MemberRepositoryV1 memberRepository;
+  private MemberServiceV2 memberService;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    dataSource = DBConnectionUtil.getDataSource();
+    memberRepository = new MemberRepositoryV1(dataSource);
+    memberService = ContainerService.getObject(MemberServiceV2Impl.class);
+
+    memberRepository.save(new Member("memberA", 10000));
+    memberRepository.save(new Member("memberB", 10000));
+    memberRepository.save(new Member("ex", 10000));
+  }
+
+  @AfterEach
+  void tearDown() throws SQLException {
+    memberRepository.delete("memberA");
+    memberRepository.delete("memberB");
+    memberRepository.delete("ex");
+  }
+
+  @Test
+  @DisplayName("배치 이체는 한 트랜잭션으로 반영된다")
+  void accountTransferBatch() throws SQLException {
+    List<Transfer> failed = memberService.accountTransferBatch(List.of(
+            new Transfer("memberA", "memberB", 2000),
+            new Transfer("memberB", "memberA", 500),
+            new Transfer("memberA", "memberA", 100)
+    ), BatchFailurePolicy.FAIL_BATCH);
+
+    assertAll(
+            () -> assertThat(failed).isEmpty(),
+            () -> assertThat(memberRepository.findById("memberA").getMoney()).isEqualTo(8500),
+            () -> assertThat(memberRepository.findById("memberB").getMoney()).isEqualTo(11500)
+    );
+  }
+
+  @Test
+  @DisplayName("SKIP_FAILED는 실패한 이체만 빼고 나머지를 커밋한다")
+  void skipFailed() throws SQLException {
+    Transfer toEx = new Transfer("memberA", "ex", 1000);
+    Transfer toUnknown = new Transfer("memberA", "unknown", 1000);
+
+    List<Transfer> failed = memberService.accountTransferBatch(List.of(
+            new Transfer("memberA", "memberB", 2000),
+            toEx,
+            toUnknown
+    ), BatchFailurePolicy.SKIP_FAILED);
+
+    assertAll(
+            () -> assertThat(failed).containsExactly(toEx, toUnknown),
+            () -> assertThat(memberRepository.findById("memberA").getMoney()).isEqualTo(8000),
+            () -> assertThat(memberRepository.findById("memberB").getMoney()).isEqualTo(12000),
+            () -> assertThat(memberRepository.findById("ex").getMoney()).isEqualTo(10000)
+    );
+  }
+
+  @Test
+  @DisplayName("FAIL_BATCH는 하나라도 실패하면 전체를 롤백한다")
+  void failBatch() throws SQLException {
+    assertThatThrownBy(() -> memberService.accountTransferBatch(List.of(
+            new Transfer("memberA", "memberB", 2000),
+            new Transfer("memberA", "ex", 1000)
+    ), BatchFailurePolicy.FAIL_BATCH))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("이체중 예외 발생");
+
+    assertAll(
+            () -> assertThat(memberRepository.findById("memberA").getMoney()).isEqualTo(10000),
+            () -> assertThat(memberRepository.findById("memberB").getMoney()).isEqualTo(10000)
+    );
+  }
+
+  @Test
+  @DisplayName("같은 회원을 동시에 이체하는 배치끼리 갱신이 유실되지 않는다")
+  void concurrentBatches() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<List<Transfer>>> futures = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        boolean forward = i % 2 == 0;
+        futures.add(executor.submit(() -> memberService.accountTransferBatch(List.of(
+                forward ? new Transfer("memberA", "memberB", 100) : new Transfer("memberB", "memberA", 10)
+        ), BatchFailurePolicy.FAIL_BATCH)));
+      }
+      for (Future<List<Transfer>> future : futures) {
+        assertThat(future.get()).isEmpty();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertAll(
+            () -> assertThat(memberRepository.findById("memberA").getMoney()).isEqualTo(10000 - 10 * 100 + 10 * 10),
+            () -> assertThat(memberRepository.findById("memberB").getMoney()).isEqualTo(10000 + 10 * 100 - 10 * 10)
+    );
+  }
+
+  @Test
+  @DisplayName("updateBatch는 잔액이 부족하면 예외를 던지고 음수로 만들지 않는다")
+  void updateBatchBalanceCondition() throws SQLException {
+    assertThatThrownBy(() -> memberRepository.updateBatch(Map.of("memberA", -20000L)))
+            .isInstanceOf(IllegalStateException.class);
+
+    assertThat(memberRepository.findById("memberA").getMoney()).isEqualTo(10000);
+  }
+}
@@ -0,0 +1,64 @@
+package org.example.metrics;
+
+import org.example.db.DBConnectionUtil;
+import org.example.transactional.MyTransactionManager;
+import org.example.transactional.TransactionAttribute;
+import org.example.transactional.TransactionInterceptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class MetricsRegistryTest {
+
+  private MetricsRegistry metricsRegistry;
+  private TransactionInterceptor transactionInterceptor;
+
+  @BeforeEach
+  void setUp() {
+    metricsRegistry = new MetricsRegistry();
+    metricsRegistry.registerPool(DBConnectionUtil.getDataSource());
+    transactionInterceptor = new TransactionInterceptor(new MyTransactionManager(DBConnectionUtil.getDataSource()), metricsRegistry);
+  }
+
+  @Test
+  @DisplayName("커밋과 롤백 횟수, 단계별 시간을 메서드별로 기록한다")
+  void recordTransaction() throws Throwable {
+    transactionInterceptor.invoke(TransactionAttribute.DEFAULT, () -> "ok");
+    assertThatThrownBy(() -> transactionInterceptor.invoke(TransactionAttribute.DEFAULT, () -> {
+      throw new IllegalStateException("이체중 예외 발생");
+    })).isInstanceOf(IllegalStateException.class);
+
+    TransactionMetrics metrics = metricsRegistry.transactionMetrics(TransactionAttribute.DEFAULT.getName());
+    assertAll(
+            () -> assertThat(metrics.getCommitCount()).isEqualTo(1),
+            () -> assertThat(metrics.getRollbackCount()).isEqualTo(1),
+            () -> assertThat(metrics.getErrorCount()).isEqualTo(1),
+            () -> assertThat(metrics.getAcquire().getCount()).isEqualTo(2),
+            () -> assertThat(metrics.getBody().getCount()).isEqualTo(2),
+            () -> assertThat(metricsRegistry.dump())
+                    .contains("tx_commits{method=\"default\"} 1")
+                    .contains("hikari_connections_active{pool=\"MyPool\"} 0")
+                    .contains("hikari_connections_pending{pool=\"MyPool\"}")
+    );
+  }
+
+  @Test
+  @DisplayName("분위수는 실제 값의 25% 오차 안에서 구한다")
+  void percentile() {
+    Histogram histogram = new Histogram();
+    for (long i = 1; i <= 1000; i++) {
+      histogram.record(i * 1000);
+    }
+
+    assertAll(
+            () -> assertThat(histogram.getCount()).isEqualTo(1000),
+            () -> assertThat(histogram.getMax()).isEqualTo(1_000_000),
+            () -> assertThat(histogram.percentile(0.5)).isBetween(500_000L, 625_000L),
+            () -> assertThat(histogram.percentile(0.99)).isBetween(990_000L, 1_000_000L)
+    );
+  }
+}
@@ -0,0 +1,87 @@
+package org.example.transactional;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.db.DBConnectionUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class MyTransactionManagerTest {
+
+  private HikariDataSource dataSource;
+  private HikariDataSource readDataSource;
+  private MyTransactionManager transactionManager;
+
+  @BeforeEach
+  void setUp() {
+    dataSource = DBConnectionUtil.getDataSource();
+    readDataSource = DBConnectionUtil.getReadDataSource();
+    transactionManager = new MyTransactionManager(dataSource, readDataSource);
+  }
+
+  @Test
+  @DisplayName("트랜잭션 커넥션은 현재 스레드에 바인딩된다")
+  void bindConnection() throws SQLException {
+    TransactionStatus status = transactionManager.getTransaction();
+    Connection con = DataSourceUtils.getConnection(dataSource);
+    DataSourceUtils.releaseConnection(con, dataSource); // 트랜잭션 커넥션은 닫히지 않는다.
+
+    assertAll(
+            () -> assertThat(con).isSameAs(status.getConnection()),
+            () -> assertThat(con.isClosed()).isFalse(),
+            () -> assertThat(con.getAutoCommit()).isFalse()
+    );
+
+    transactionManager.commit(status);
+  }
+
+  @Test
+  @DisplayName("커밋/롤백 직후 커넥션이 풀로 반납된다")
+  void releaseConnection() throws SQLException {
+    TransactionStatus commitStatus = transactionManager.getTransaction();
+    transactionManager.commit(commitStatus);
+
+    TransactionStatus rollbackStatus = transactionManager.getTransaction();
+    transactionManager.rollback(rollbackStatus);
+
+    assertAll(
+            () -> assertThat(TransactionSynchronizationManager.hasResource(dataSource)).isFalse(),
+            () -> assertThat(dataSource.getHikariPoolMXBean().getActiveConnections()).isZero()
+    );
+  }
+
+  @Test
+  @DisplayName("읽기 전용 트랜잭션은 읽기 전용 풀의 커넥션을 사용한다")
+  void readOnlyTransaction() throws Exception {
+    Method method = ReadOnlyService.class.getMethod("find");
+    TransactionAttribute attribute = TransactionAttributeSource.getAttribute(method, ReadOnlyService.class);
+
+    TransactionStatus status = transactionManager.getTransaction(attribute);
+    try {
+      Connection con = DataSourceUtils.getConnection(dataSource);
+
+      assertAll(
+              () -> assertThat(con).isSameAs(status.getConnection()),
+              () -> assertThat(readDataSource.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1),
+              () -> assertThat(dataSource.getHikariPoolMXBean().getActiveConnections()).isZero()
+      );
+    } finally {
+      transactionManager.commit(status);
+    }
+    assertThat(readDataSource.getHikariPoolMXBean().getActiveConnections()).isZero();
+  }
+
+  static class ReadOnlyService {
+
+    @MyTransactional(readOnly = true)
+    public void find() {
+    }
+  }
+}
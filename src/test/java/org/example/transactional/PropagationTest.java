@@ -0,0 +1,152 @@
+package org.example.transactional;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.db.DBConnectionUtil;
+import org.example.member.Member;
+import org.example.member.MemberRepositoryV1;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class PropagationTest {
+
+  private HikariDataSource dataSource;
+  private MemberRepositoryV1 memberRepository;
+  private MyTransactionManager transactionManager;
+
+  @BeforeEach
+  void setUp() {
+    dataSource = DBConnectionUtil.getDataSource();
+    memberRepository = new MemberRepositoryV1(dataSource);
+    transactionManager = new MyTransactionManager(dataSource);
+  }
+
+  @AfterEach
+  void tearDown() throws SQLException {
+    memberRepository.delete("memberA");
+    memberRepository.delete("memberB");
+  }
+
+  @Test
+  @DisplayName("REQUIRED는 바깥 트랜잭션의 커넥션에 참여한다")
+  void required() throws Exception {
+    TransactionStatus outer = transactionManager.getTransaction();
+    TransactionStatus inner = transactionManager.getTransaction(attribute("required"));
+
+    assertAll(
+            () -> assertThat(inner.isNewTransaction()).isFalse(),
+            () -> assertThat(inner.getConnection()).isSameAs(outer.getConnection()),
+            () -> assertThat(dataSource.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1)
+    );
+
+    transactionManager.commit(inner);
+    assertThat(outer.getConnection().isClosed()).isFalse(); // 안쪽 커밋이 바깥 커넥션을 닫지 않는다.
+    transactionManager.commit(outer);
+  }
+
+  @Test
+  @DisplayName("REQUIRED 안쪽에서 롤백하면 바깥 트랜잭션도 커밋되지 않는다")
+  void requiredRollbackOnly() throws Exception {
+    TransactionStatus outer = transactionManager.getTransaction();
+    memberRepository.save(new Member("memberA", 10000));
+
+    TransactionStatus inner = transactionManager.getTransaction(attribute("required"));
+    transactionManager.rollback(inner);
+
+    assertThatThrownBy(() -> transactionManager.commit(outer))
+            .isInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> memberRepository.findById("memberA"))
+            .isInstanceOf(NoSuchElementException.class);
+  }
+
+  @Test
+  @DisplayName("REQUIRES_NEW는 바깥 트랜잭션을 보류하고 새 커넥션을 사용한다")
+  void requiresNew() throws Exception {
+    TransactionStatus outer = transactionManager.getTransaction();
+    memberRepository.save(new Member("memberA", 10000));
+
+    TransactionStatus inner = transactionManager.getTransaction(attribute("requiresNew"));
+    memberRepository.save(new Member("memberB", 10000));
+    assertThat(inner.getConnection()).isNotSameAs(outer.getConnection());
+    transactionManager.commit(inner);
+
+    assertThat(DataSourceUtils.getConnection(dataSource)).isSameAs(outer.getConnection()); // 재개
+    transactionManager.rollback(outer);
+
+    assertThatThrownBy(() -> memberRepository.findById("memberA"))
+            .isInstanceOf(NoSuchElementException.class);
+    assertThat(memberRepository.findById("memberB").getMoney()).isEqualTo(10000);
+  }
+
+  @Test
+  @DisplayName("NESTED는 세이브포인트까지만 롤백한다")
+  void nested() throws Exception {
+    TransactionStatus outer = transactionManager.getTransaction();
+    memberRepository.save(new Member("memberA", 10000));
+
+    TransactionStatus inner = transactionManager.getTransaction(attribute("nested"));
+    memberRepository.save(new Member("memberB", 10000));
+    transactionManager.rollback(inner);
+
+    transactionManager.commit(outer);
+
+    assertThat(memberRepository.findById("memberA").getMoney()).isEqualTo(10000);
+    assertThatThrownBy(() -> memberRepository.findById("memberB"))
+            .isInstanceOf(NoSuchElementException.class);
+  }
+
+  @Test
+  @DisplayName("읽기 전용 트랜잭션 안의 쓰기는 보류 후 쓰기 풀에서 새 트랜잭션으로 실행되어 롤백된다")
+  void writeInsideReadOnly() throws Exception {
+    memberRepository.save(new Member("memberA", 10000));
+    HikariDataSource readDataSource = DBConnectionUtil.getReadDataSource();
+    MyTransactionManager routingManager = new MyTransactionManager(dataSource, readDataSource);
+
+    TransactionStatus outer = routingManager.getTransaction(attribute("readOnly"));
+    memberRepository.findById("memberA");
+
+    TransactionStatus inner = routingManager.getTransaction(attribute("required"));
+    memberRepository.update("memberA", 5000);
+    assertAll(
+            () -> assertThat(inner.isNewTransaction()).isTrue(),
+            () -> assertThat(inner.getConnection()).isNotSameAs(outer.getConnection())
+    );
+    routingManager.rollback(inner); // UPDATE 이후 실패
+
+    assertThat(DataSourceUtils.getConnection(dataSource)).isSameAs(outer.getConnection()); // 재개
+    routingManager.commit(outer);
+
+    assertThat(memberRepository.findById("memberA").getMoney()).isEqualTo(10000);
+  }
+
+  private TransactionAttribute attribute(String methodName) throws NoSuchMethodException {
+    return TransactionAttributeSource.getAttribute(PropagationService.class.getMethod(methodName), PropagationService.class);
+  }
+
+  static class PropagationService {
+
+    @MyTransactional
+    public void required() {
+    }
+
+    @MyTransactional(propagation = Propagation.REQUIRES_NEW)
+    public void requiresNew() {
+    }
+
+    @MyTransactional(propagation = Propagation.NESTED)
+    public void nested() {
+    }
+
+    @MyTransactional(readOnly = true)
+    public void readOnly() {
+    }
+  }
+}
@@ -28,7 +28,7 @@ class ProxyInTransactionalTest {
   void setUp() throws SQLException {
     dataSource = DBConnectionUtil.getDataSource();
     memberRepository = new MemberRepositoryV1(dataSource);
-    proxyInMemberService = new ProxyInMemberService();
+    proxyInMemberService = new ProxyInMemberService(dataSource);
     memberServiceV2 = proxyInMemberService.getMemberServiceProxy(new MemberServiceV2Impl(memberRepository));
   }
 
@@ -49,7 +49,7 @@ class ProxyInTransactionalTest {
     memberRepository.save(memberB);
 
     // when
-    memberServiceV2.accountTransfer(memberA.getMemberId(), memberB.getMemberId(), 2000, dataSource.getConnection());
+    memberServiceV2.accountTransfer(memberA.getMemberId(), memberB.getMemberId(), 2000);
 
     Member findMemberA = memberRepository.findById(memberA.getMemberId());
     Member findMemberB = memberRepository.findById(memberB.getMemberId());
@@ -70,7 +70,7 @@ class ProxyInTransactionalTest {
     memberRepository.save(memberEx);
 
     // when
-    assertThatThrownBy(() -> memberServiceV2.accountTransfer("memberA", "ex", 2000, dataSource.getConnection()))
+    assertThatThrownBy(() -> memberServiceV2.accountTransfer("memberA", "ex", 2000))
             .isInstanceOf(IllegalStateException.class)
             .hasMessage("이체중 예외 발생");
 
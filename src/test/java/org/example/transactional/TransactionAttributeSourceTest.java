@@ -0,0 +1,81 @@
+package org.example.transactional;
+
+import org.example.member.MemberServiceV2;
+import org.example.member.MemberServiceV2Impl;
+import org.example.member.MemberServiceV3;
+import org.example.metrics.MetricsRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class TransactionAttributeSourceTest {
+
+  @Test
+  @DisplayName("인터페이스 메서드로 구현 클래스의 @MyTransactional 속성을 찾는다")
+  void getAttribute() throws NoSuchMethodException {
+    Method method = MemberServiceV2.class.getMethod("accountTransfer", String.class, String.class, int.class);
+
+    TransactionAttribute attribute = TransactionAttributeSource.getAttribute(method, MemberServiceV2Impl.class);
+
+    assertAll(
+            () -> assertThat(attribute).isNotNull(),
+            () -> assertThat(attribute.getName()).isEqualTo("org.example.member.MemberServiceV2Impl.accountTransfer(java.lang.String,java.lang.String,int)"),
+            () -> assertThat(TransactionAttributeSource.getAttribute(method, MemberServiceV2Impl.class)).isSameAs(attribute)
+    );
+  }
+
+  @Test
+  @DisplayName("오버로드된 메서드는 이름이 달라 메트릭이 섞이지 않고, 메트릭은 속성에 캐시된다")
+  void overloadedName() throws NoSuchMethodException {
+    TransactionAttribute noArgs = TransactionAttributeSource.getAttribute(OverloadedService.class.getMethod("save"), OverloadedService.class);
+    TransactionAttribute withArgs = TransactionAttributeSource.getAttribute(
+            OverloadedService.class.getMethod("save", String[].class), OverloadedService.class);
+    MetricsRegistry metricsRegistry = new MetricsRegistry();
+
+    assertAll(
+            () -> assertThat(noArgs.getName()).isEqualTo("org.example.transactional.TransactionAttributeSourceTest$OverloadedService.save()"),
+            () -> assertThat(withArgs.getName()).isEqualTo("org.example.transactional.TransactionAttributeSourceTest$OverloadedService.save(java.lang.String[])"),
+            () -> assertThat(noArgs.getMetrics(metricsRegistry)).isNotSameAs(withArgs.getMetrics(metricsRegistry)),
+            () -> assertThat(noArgs.getMetrics(metricsRegistry)).isSameAs(metricsRegistry.transactionMetrics(noArgs.getName()))
+    );
+  }
+
+  @Test
+  @DisplayName("컴파일 시점에 생성된 프록시의 속성 이름은 런타임에 만든 이름과 같다")
+  void generatedName() throws Exception {
+    Method method = MemberServiceV3.class.getMethod("accountTransfer", String.class, String.class, int.class);
+    Field field = Class.forName("org.example.member.MemberServiceV3$$Proxy").getDeclaredField("ATTRIBUTE_0");
+    field.setAccessible(true);
+
+    assertThat(((TransactionAttribute) field.get(null)).getName())
+            .isEqualTo(TransactionAttributeSource.getAttribute(method, MemberServiceV3.class).getName());
+  }
+
+  @Test
+  @DisplayName("@MyTransactional이 없는 메서드는 속성이 없다")
+  void noAttribute() throws NoSuchMethodException {
+    Method method = Object.class.getMethod("toString");
+
+    assertAll(
+            () -> assertThat(TransactionAttributeSource.getAttribute(method, MemberServiceV2Impl.class)).isNull(),
+            () -> assertThat(TransactionAttributeSource.isTransactional(MemberServiceV2Impl.class)).isTrue(),
+            () -> assertThat(TransactionAttributeSource.isTransactional(Object.class)).isFalse()
+    );
+  }
+
+  static class OverloadedService {
+
+    @MyTransactional
+    public void save() {
+    }
+
+    @MyTransactional
+    public void save(String... names) {
+    }
+  }
+}
@@ -0,0 +1,127 @@
+package org.example.transactional;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.db.DBConnectionUtil;
+import org.example.db.LazyConnectionDataSource;
+import org.example.metrics.MetricsRegistry;
+import org.example.metrics.TransactionMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.example.db.ConnectionConst.PASSWORD;
+import static org.example.db.ConnectionConst.URL;
+import static org.example.db.ConnectionConst.USERNAME;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class TransactionInterceptorTest {
+
+  private TransactionInterceptor transactionInterceptor;
+
+  @BeforeEach
+  void setUp() {
+    transactionInterceptor = new TransactionInterceptor(new MyTransactionManager(DBConnectionUtil.getDataSource()));
+  }
+
+  @Test
+  @DisplayName("데드락으로 롤백되면 새 트랜잭션으로 다시 시도한다")
+  void retryOnDeadlock() throws Throwable {
+    AtomicInteger attempts = new AtomicInteger();
+
+    Object result = transactionInterceptor.invoke(attribute("retry"), () -> {
+      if (attempts.incrementAndGet() < 3) {
+        throw new SQLException("deadlock detected", "40001");
+      }
+      return "ok";
+    });
+
+    assertAll(
+            () -> assertThat(result).isEqualTo("ok"),
+            () -> assertThat(attempts.get()).isEqualTo(3)
+    );
+  }
+
+  @Test
+  @DisplayName("재시도 횟수를 넘거나 재시도 대상이 아니면 예외가 발생한다")
+  void noRetry() throws Exception {
+    AtomicInteger deadlocks = new AtomicInteger();
+    AtomicInteger failures = new AtomicInteger();
+
+    assertThatThrownBy(() -> transactionInterceptor.invoke(attribute("retry"), () -> {
+      deadlocks.incrementAndGet();
+      throw new SQLException("deadlock detected", "40001");
+    })).isInstanceOf(IllegalStateException.class).hasRootCauseInstanceOf(SQLException.class);
+
+    assertThatThrownBy(() -> transactionInterceptor.invoke(attribute("retry"), () -> {
+      failures.incrementAndGet();
+      throw new IllegalStateException("이체중 예외 발생");
+    })).isInstanceOf(IllegalStateException.class).hasMessage("이체중 예외 발생");
+
+    assertAll(
+            () -> assertThat(deadlocks.get()).isEqualTo(4),
+            () -> assertThat(failures.get()).isEqualTo(1)
+    );
+  }
+
+  @Test
+  @DisplayName("지연 커넥션이 처음 SQL에서 풀을 기다린 시간은 본문이 아니라 획득 시간(tx_acquire_us)으로 기록된다")
+  void acquireWithLazyConnection() throws Throwable {
+    MetricsRegistry metricsRegistry = new MetricsRegistry();
+    try (HikariDataSource pool = new HikariDataSource()) {
+      pool.setJdbcUrl(URL);
+      pool.setUsername(USERNAME);
+      pool.setPassword(PASSWORD);
+      pool.setMaximumPoolSize(1);
+      pool.setPoolName("AcquireWaitPool");
+      LazyConnectionDataSource dataSource = new LazyConnectionDataSource(pool);
+      TransactionInterceptor interceptor = new TransactionInterceptor(new MyTransactionManager(dataSource), metricsRegistry);
+
+      // 다른 스레드가 하나뿐인 커넥션을 300ms 동안 잡고 있다.
+      Connection held = pool.getConnection();
+      Thread holder = new Thread(() -> {
+        try {
+          Thread.sleep(300);
+          held.close();
+        } catch (InterruptedException | SQLException e) {
+          throw new IllegalStateException(e);
+        }
+      });
+      holder.start();
+
+      interceptor.invoke(attribute("retry"), () -> {
+        Connection con = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement pstmt = con.prepareStatement("select 1")) {
+          return pstmt.executeQuery().next();
+        }
+      });
+      holder.join();
+    }
+
+    String name = attribute("retry").getName();
+    TransactionMetrics metrics = metricsRegistry.transactionMetrics(name);
+    assertAll(
+            () -> assertThat(metrics.getAcquire().getMax()).isGreaterThanOrEqualTo(250_000_000L),
+            () -> assertThat(metrics.getBody().getMax()).isLessThan(250_000_000L),
+            () -> assertThat(metrics.getBegin().getMax()).isLessThan(250_000_000L),
+            () -> assertThat(metricsRegistry.dump()).contains("tx_acquire_us_count{method=\"" + name + "\"} 1")
+    );
+  }
+
+  private TransactionAttribute attribute(String methodName) throws NoSuchMethodException {
+    return TransactionAttributeSource.getAttribute(RetryService.class.getMethod(methodName), RetryService.class);
+  }
+
+  static class RetryService {
+
+    @MyTransactional(maxRetries = 3, retryBackoffMillis = 1)
+    public void retry() {
+    }
+  }
+}
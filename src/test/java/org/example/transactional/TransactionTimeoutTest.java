@@ -0,0 +1,78 @@
+package org.example.transactional;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.db.DBConnectionUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionTimeoutTest {
+
+  private HikariDataSource dataSource;
+  private TransactionInterceptor transactionInterceptor;
+
+  @BeforeEach
+  void setUp() {
+    dataSource = DBConnectionUtil.getDataSource();
+    transactionInterceptor = new TransactionInterceptor(new MyTransactionManager(dataSource));
+  }
+
+  @Test
+  @DisplayName("남은 시간이 쿼리 타임아웃이 되어 오래 걸리는 SQL을 취소하고 커넥션을 반납한다")
+  void queryTimeout() {
+    long start = System.nanoTime();
+
+    assertThatThrownBy(() -> transactionInterceptor.invoke(attribute(), () -> {
+      Connection con = DataSourceUtils.getConnection(dataSource);
+      try (PreparedStatement pstmt = con.prepareStatement("select sum(x) from system_range(1, 10000000000)")) {
+        DataSourceUtils.applyTransactionTimeout(pstmt, con, dataSource);
+        return pstmt.executeQuery();
+      }
+    })).isInstanceOf(TransactionTimedOutException.class).hasCauseInstanceOf(SQLException.class);
+
+    assertThat(System.nanoTime() - start).isLessThan(5_000_000_000L);
+    assertThat(dataSource.getHikariPoolMXBean().getActiveConnections()).isZero();
+  }
+
+  @Test
+  @DisplayName("제한 시간이 지난 트랜잭션은 커밋하지 않고 롤백한다")
+  void commitAfterDeadline() {
+    assertThatThrownBy(() -> transactionInterceptor.invoke(attribute(), () -> {
+      Thread.sleep(1100);
+      return null;
+    })).isInstanceOf(TransactionTimedOutException.class);
+
+    assertThat(dataSource.getHikariPoolMXBean().getActiveConnections()).isZero();
+  }
+
+  @Test
+  @DisplayName("제한 시간이 지난 뒤에는 SQL을 실행하지 않는다")
+  void statementAfterDeadline() {
+    assertThatThrownBy(() -> transactionInterceptor.invoke(attribute(), () -> {
+      Thread.sleep(1100);
+      Connection con = DataSourceUtils.getConnection(dataSource);
+      try (PreparedStatement pstmt = con.prepareStatement("select 1")) {
+        DataSourceUtils.applyTransactionTimeout(pstmt, con, dataSource);
+        return pstmt.executeQuery();
+      }
+    })).isInstanceOf(TransactionTimedOutException.class).hasMessageStartingWith("transaction timed out: deadline passed");
+  }
+
+  private TransactionAttribute attribute() throws NoSuchMethodException {
+    return TransactionAttributeSource.getAttribute(TimeoutService.class.getMethod("transfer"), TimeoutService.class);
+  }
+
+  static class TimeoutService {
+
+    @MyTransactional(timeout = 1)
+    public void transfer() {
+    }
+  }
+}